@@ -0,0 +1,162 @@
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Clase que corre los benchmarks de JMH y los compara con una referencia guardada
+ * Sirve para detectar regresiones y comparar motores nuevos con el comportamiento actual.
+ * Termina con codigo 1 si algun benchmark es mas lento que la referencia por encima de la
+ * tolerancia, asi se puede usar para frenar un cambio.
+ *
+ * Ejecutar desde la raiz del proyecto:
+ *   mvn -P benchmark verify
+ *   mvn -P benchmark verify -Dbenchmark.argumentos="--guardar bench/referencia.csv"
+ *   mvn -P benchmark verify -Dbenchmark.argumentos="--referencia bench/referencia.csv"
+ *
+ * Opciones:
+ *   --referencia archivo  compara con los resultados guardados en el archivo
+ *   --guardar archivo     guarda los resultados como nueva referencia
+ *   --tolerancia n        porcentaje de tiempo extra permitido (10 por defecto)
+ *   --incluir expresion   corre solo los benchmarks cuya clase o metodo coincide
+ *   --iteraciones n       iteraciones de calentamiento y de medicion (las de cada clase por defecto)
+ *   --grande              agrega el historial de 10^7 lineas
+ */
+public class BenchmarkJuego {
+    private static final double TOLERANCIA_PREDETERMINADA = 10.0; // Porcentaje
+    private static final String BENCHMARKS = "benchmark\\.Benchmark(Carrera|Estadisticas|Historial)\\.";
+    private static final String[] LINEAS_HISTORIAL = {"1000", "10000", "100000", "1000000"};
+
+    public static void main(String[] args) throws RunnerException {
+        String referencia = null;
+        String guardar = null;
+        double tolerancia = TOLERANCIA_PREDETERMINADA;
+        String incluir = BENCHMARKS;
+        int iteraciones = 0;
+        boolean grande = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--referencia" -> referencia = argumento(args, ++i);
+                case "--guardar" -> guardar = argumento(args, ++i);
+                case "--tolerancia" -> tolerancia = Double.parseDouble(argumento(args, ++i));
+                case "--incluir" -> incluir = "benchmark\\.Benchmark.*" + argumento(args, ++i);
+                case "--iteraciones" -> iteraciones = Integer.parseInt(argumento(args, ++i));
+                case "--grande" -> grande = true;
+                default -> throw new IllegalArgumentException("Opcion desconocida: " + args[i]);
+            }
+        }
+
+        ChainedOptionsBuilder opciones = new OptionsBuilder().include(incluir);
+        if (iteraciones > 0) {
+            opciones.warmupIterations(iteraciones).measurementIterations(iteraciones);
+        }
+        if (grande) {
+            String[] lineas = Arrays.copyOf(LINEAS_HISTORIAL, LINEAS_HISTORIAL.length + 1);
+            lineas[LINEAS_HISTORIAL.length] = "10000000";
+            opciones.param("lineas", lineas);
+        }
+
+        Map<String, Double> resultados = new LinkedHashMap<>();
+        for (RunResult resultado : new Runner(opciones.build()).run()) {
+            resultados.put(nombre(resultado), resultado.getPrimaryResult().getScore());
+        }
+
+        if (guardar != null) {
+            guardarReferencia(guardar, resultados);
+        }
+        if (referencia != null && !compararConReferencia(referencia, resultados, tolerancia)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Nombre de un resultado: clase.metodo y sus parametros, por ejemplo
+     * "benchmark.BenchmarkHistorial.cargarHistorial lineas=1000"
+     */
+    private static String nombre(RunResult resultado) {
+        StringBuilder nombre = new StringBuilder(resultado.getParams().getBenchmark());
+        for (String clave : resultado.getParams().getParamsKeys()) {
+            nombre.append(' ').append(clave).append('=').append(resultado.getParams().getParam(clave));
+        }
+        return nombre.toString();
+    }
+
+    /**
+     * Compara cada resultado con su referencia y muestra la tabla
+     * @return false si hay alguna regresion o no se pudo leer la referencia
+     */
+    private static boolean compararConReferencia(String archivo, Map<String, Double> resultados, double tolerancia) {
+        Map<String, Double> referencia;
+        try {
+            referencia = leerReferencia(archivo);
+        } catch (IOException | NumberFormatException e) {
+            System.out.println("Error al leer la referencia: " + e.getMessage());
+            return false;
+        }
+
+        boolean sinRegresiones = true;
+        System.out.printf("%-60s %14s %14s %9s  %s\n", "Benchmark", "referencia", "actual", "cambio", "estado");
+        for (Map.Entry<String, Double> resultado : resultados.entrySet()) {
+            Double anterior = referencia.get(resultado.getKey());
+            double actual = resultado.getValue();
+            if (anterior == null) {
+                System.out.printf("%-60s %14s %14.2f %9s  NUEVO\n", resultado.getKey(), "-", actual, "-");
+                continue;
+            }
+
+            double cambio = (actual / anterior - 1) * 100;
+            boolean regresion = cambio > tolerancia;
+            sinRegresiones &= !regresion;
+            System.out.printf("%-60s %14.2f %14.2f %+8.1f%%  %s\n", resultado.getKey(), anterior, actual, cambio,
+                    regresion ? "REGRESION" : "OK");
+        }
+
+        System.out.println(sinRegresiones
+                ? "Sin regresiones (tolerancia " + tolerancia + "%)."
+                : "Hay regresiones por encima de la tolerancia (" + tolerancia + "%).");
+        return sinRegresiones;
+    }
+
+    /**
+     * Lee una referencia: una linea "nombre,ns/op" por benchmark
+     */
+    private static Map<String, Double> leerReferencia(String archivo) throws IOException {
+        Map<String, Double> referencia = new HashMap<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                new FileInputStream(archivo), StandardCharsets.UTF_8))) {
+            String linea;
+            while ((linea = br.readLine()) != null) {
+                int coma = linea.lastIndexOf(',');
+                if (coma > 0) {
+                    referencia.put(linea.substring(0, coma), Double.parseDouble(linea.substring(coma + 1)));
+                }
+            }
+        }
+        return referencia;
+    }
+
+    private static void guardarReferencia(String archivo, Map<String, Double> resultados) {
+        try (PrintWriter pw = new PrintWriter(new OutputStreamWriter(
+                new FileOutputStream(archivo), StandardCharsets.UTF_8))) {
+            for (Map.Entry<String, Double> resultado : resultados.entrySet()) {
+                pw.println(resultado.getKey() + "," + String.format(Locale.ROOT, "%.3f", resultado.getValue()));
+            }
+            System.out.println("Referencia guardada en " + archivo);
+        } catch (IOException e) {
+            System.out.println("Error al guardar la referencia: " + e.getMessage());
+        }
+    }
+
+    private static String argumento(String[] args, int indice) {
+        if (indice >= args.length) {
+            throw new IllegalArgumentException("Falta el valor de " + args[indice - 1]);
+        }
+        return args[indice];
+    }
+}
@@ -0,0 +1,78 @@
+import benchmark.Operaciones;
+
+import java.util.ArrayList;
+import java.util.function.LongSupplier;
+
+/**
+ * Clase que prepara las operaciones de simulacion de carreras para los benchmarks
+ * Compara tambien Carrera y MotorCarreraMasiva con un roster grande.
+ */
+public class OperacionesCarrera implements Operaciones {
+    // Debe coincidir con @OperationsPerInvocation de benchmark.BenchmarkCarrera.avanzar
+    private static final int PASOS_AVANZAR = 1000;
+
+    private Corredor corredor;
+    private AleatorioDivisible aleatorio;
+    private Carrera carreraTres;
+    private Carrera carreraMasiva;
+    private MotorCarreraMasiva motor;
+
+    /**
+     * Constructor de las operaciones
+     * @param corredoresMasiva Corredores de la carrera masiva
+     */
+    public OperacionesCarrera(long corredoresMasiva) {
+        aleatorio = new AleatorioDivisible(1);
+        corredor = new Corredor("Garfield", 45, new PowerUp("Lasagna Turbo", 30, 1));
+
+        carreraTres = new Carrera(EscuchaCarrera.SILENCIOSO, new AleatorioDivisible(1));
+        carreraTres.agregarParticipante(new Corredor("Garfield", 45, new PowerUp("Lasagna Turbo", 30, 1)));
+        carreraTres.agregarParticipante(new Corredor("Odie", 50, new PowerUp("Crazy Boost", 25, 2)));
+        carreraTres.agregarParticipante(new Corredor("Jon", 42, new PowerUp("Coffee Rush", 20, 3)));
+
+        ArrayList<Corredor> corredores = new ArrayList<>();
+        AleatorioDivisible velocidades = new AleatorioDivisible(1);
+        for (int i = 0; i < corredoresMasiva; i++) {
+            corredores.add(new Corredor("Corredor" + i, 40 + velocidades.enteroEntre(0, 10),
+                    new PowerUp("Crazy Boost", 25, 2)));
+        }
+        carreraMasiva = new Carrera(EscuchaCarrera.SILENCIOSO, new AleatorioDivisible(1));
+        for (Corredor participante : corredores) {
+            carreraMasiva.agregarParticipante(participante);
+        }
+        motor = new MotorCarreraMasiva(corredores, new AleatorioDivisible(1));
+    }
+
+    @Override
+    public LongSupplier operacion(String nombre) {
+        switch (nombre) {
+            case "avanzar":
+                // PASOS_AVANZAR pasos desde la largada, asi la posicion no crece sin limite
+                return () -> {
+                    corredor.reiniciarPosicion();
+                    long total = 0;
+                    for (int i = 0; i < PASOS_AVANZAR; i++) {
+                        total += corredor.avanzar(aleatorio);
+                    }
+                    return total;
+                };
+            case "carreraTresCorredores":
+                return () -> {
+                    carreraTres.reiniciar();
+                    return carreraTres.simular()[0].getPosicionActual();
+                };
+            case "carreraMasiva":
+                return () -> {
+                    carreraMasiva.reiniciar();
+                    return carreraMasiva.simular()[0].getPosicionActual();
+                };
+            case "motorCarreraMasiva":
+                return () -> {
+                    motor.reiniciar();
+                    return motor.simular()[0];
+                };
+            default:
+                throw new IllegalArgumentException("Operacion desconocida: " + nombre);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+import benchmark.Operaciones;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.function.LongSupplier;
+
+/**
+ * Clase que prepara las consultas de estadisticas sobre un roster grande para los benchmarks
+ */
+public class OperacionesEstadisticas implements Operaciones {
+    private RegistroCorredores corredores;
+    private TablaClasificacion clasificacion;
+    private Estadisticas estadisticas;
+    private PrintStream salida;
+    private int cantidad;
+    private int siguiente;
+
+    /**
+     * Constructor de las operaciones
+     * @param cantidadCorredores Tamano del roster; cada corredor juega 10 carreras en promedio
+     */
+    public OperacionesEstadisticas(long cantidadCorredores) {
+        cantidad = (int) cantidadCorredores;
+        corredores = new RegistroCorredores();
+        PowerUp powerUp = new PowerUp("Cute Power", 20, 2);
+        AleatorioDivisible aleatorio = new AleatorioDivisible(1);
+        for (int i = 0; i < cantidad; i++) {
+            corredores.registrar(new Corredor("Corredor" + i, 40 + aleatorio.enteroEntre(0, 10), powerUp));
+        }
+        for (int i = 0; i < cantidad * 10; i++) {
+            corredores.buscarPorId(aleatorio.enteroEntre(0, cantidad - 1)).registrarCarrera(aleatorio.enteroEntre(1, 3));
+        }
+        clasificacion = corredores.getClasificacion();
+        estadisticas = new Estadisticas(corredores);
+
+        // mostrarEstadisticas escribe en consola; se descarta mientras se mide
+        salida = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @Override
+    public LongSupplier operacion(String nombre) {
+        switch (nombre) {
+            case "obtenerRanking":
+                return () -> {
+                    siguiente = (siguiente + 1) % cantidad;
+                    return clasificacion.obtenerRanking(corredores.buscarPorId(siguiente), MetricaClasificacion.VICTORIAS);
+                };
+            case "obtenerTop":
+                return () -> clasificacion.obtenerTop(MetricaClasificacion.PORCENTAJE_VICTORIAS, 10).size();
+            case "mostrarEstadisticas":
+                return () -> {
+                    estadisticas.mostrarEstadisticas();
+                    return cantidad;
+                };
+            default:
+                throw new IllegalArgumentException("Operacion desconocida: " + nombre);
+        }
+    }
+
+    @Override
+    public void close() {
+        System.setOut(salida);
+    }
+}
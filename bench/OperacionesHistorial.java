@@ -0,0 +1,101 @@
+import benchmark.Operaciones;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.function.LongSupplier;
+
+/**
+ * Clase que prepara la carga de un historial sintetico para los benchmarks
+ * La operacion "registroNuevo" lee un registro sin estadisticas; se llama antes de cada
+ * carga para que las estadisticas no se acumulen entre operaciones.
+ */
+public class OperacionesHistorial implements Operaciones {
+    private static final String[] NOMBRES = {"Garfield", "Odie", "Nermal", "Arlene", "Jon"};
+
+    private File directorio;
+    private ManejadorArchivos manejador;
+    private RegistroCorredores corredores;
+
+    /**
+     * Constructor que escribe el historial en un directorio temporal
+     * @param lineas Carreras del historial
+     */
+    public OperacionesHistorial(long lineas) throws IOException {
+        directorio = Files.createTempDirectory("benchmark-kart").toFile();
+        escribirPersonajes();
+        escribirHistorial(lineas);
+        manejador = new ManejadorArchivos(directorio);
+        corredores = manejador.cargarCorredores();
+    }
+
+    @Override
+    public LongSupplier operacion(String nombre) {
+        switch (nombre) {
+            case "registroNuevo":
+                return () -> {
+                    corredores = manejador.cargarCorredores();
+                    return corredores.tamano();
+                };
+            case "cargarHistorial":
+                // Carga en paralelo, como al iniciar el juego
+                return () -> {
+                    manejador.cargarHistorial(corredores);
+                    return corredores.buscarPorId(0).getCarrerasJugadas();
+                };
+            case "recorridoSecuencial":
+                // Mismo recorrido en un solo hilo, para comparar con la carga en paralelo
+                return () -> {
+                    ConteoHistorial conteo = new ConteoHistorial(corredores.tamano());
+                    manejador.recorrerHistorial(corredores, conteo);
+                    conteo.aplicar(corredores.getEstadisticas());
+                    return corredores.buscarPorId(0).getCarrerasJugadas();
+                };
+            default:
+                throw new IllegalArgumentException("Operacion desconocida: " + nombre);
+        }
+    }
+
+    /**
+     * Borra el directorio temporal
+     */
+    @Override
+    public void close() {
+        File[] archivos = directorio.listFiles();
+        if (archivos != null) {
+            for (File archivo : archivos) {
+                archivo.delete();
+            }
+        }
+        directorio.delete();
+    }
+
+    private void escribirPersonajes() throws IOException {
+        try (PrintWriter pw = new PrintWriter(new FileWriter(new File(directorio, "personajes.csv")))) {
+            pw.println("Nombre,Velocidad,PowerUp");
+            pw.println("Garfield,45,Lasagna Turbo");
+            pw.println("Odie,50,Crazy Boost");
+            pw.println("Nermal,48,Cute Power");
+            pw.println("Arlene,47,Pink Speed");
+            pw.println("Jon,42,Coffee Rush");
+        }
+    }
+
+    private void escribirHistorial(long lineas) throws IOException {
+        AleatorioDivisible aleatorio = new AleatorioDivisible(lineas);
+
+        try (BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(new File(directorio, "historial.txt")), StandardCharsets.UTF_8))) {
+            for (long i = 0; i < lineas; i++) {
+                int a = aleatorio.enteroEntre(0, 4);
+                int b = (a + aleatorio.enteroEntre(1, 4)) % 5;
+                int c = a;
+                while (c == a || c == b) {
+                    c = aleatorio.enteroEntre(0, 4);
+                }
+                bw.write(NOMBRES[a] + "," + NOMBRES[b] + "," + NOMBRES[c] + ",1,2,3");
+                bw.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Clase que mide la simulacion de carreras con JMH
+ * Las operaciones las prepara OperacionesCarrera.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BenchmarkCarrera {
+    @Param({"1000"})
+    private long corredoresMasiva;
+
+    private Operaciones operaciones;
+    private LongSupplier avanzar;
+    private LongSupplier carreraTresCorredores;
+    private LongSupplier carreraMasiva;
+    private LongSupplier motorCarreraMasiva;
+
+    @Setup(Level.Trial)
+    public void preparar() throws ReflectiveOperationException {
+        operaciones = Operaciones.crear("OperacionesCarrera", corredoresMasiva);
+        avanzar = operaciones.operacion("avanzar");
+        carreraTresCorredores = operaciones.operacion("carreraTresCorredores");
+        carreraMasiva = operaciones.operacion("carreraMasiva");
+        motorCarreraMasiva = operaciones.operacion("motorCarreraMasiva");
+    }
+
+    @TearDown(Level.Trial)
+    public void terminar() throws Exception {
+        operaciones.close();
+    }
+
+    /**
+     * Un paso de Corredor.avanzar con power-up inactivo (cada llamada da 1000 pasos)
+     */
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public long avanzar() {
+        return avanzar.getAsLong();
+    }
+
+    /**
+     * Una carrera completa de tres corredores sin salida por consola
+     */
+    @Benchmark
+    public long carreraTresCorredores() {
+        return carreraTresCorredores.getAsLong();
+    }
+
+    @Benchmark
+    public long carreraMasiva() {
+        return carreraMasiva.getAsLong();
+    }
+
+    @Benchmark
+    public long motorCarreraMasiva() {
+        return motorCarreraMasiva.getAsLong();
+    }
+}
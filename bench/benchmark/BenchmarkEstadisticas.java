@@ -0,0 +1,54 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Clase que mide las consultas de estadisticas sobre un roster grande con JMH
+ * Las operaciones las prepara OperacionesEstadisticas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BenchmarkEstadisticas {
+    @Param({"10000"})
+    private long cantidadCorredores;
+
+    private Operaciones operaciones;
+    private LongSupplier obtenerRanking;
+    private LongSupplier obtenerTop;
+    private LongSupplier mostrarEstadisticas;
+
+    @Setup(Level.Trial)
+    public void preparar() throws ReflectiveOperationException {
+        operaciones = Operaciones.crear("OperacionesEstadisticas", cantidadCorredores);
+        obtenerRanking = operaciones.operacion("obtenerRanking");
+        obtenerTop = operaciones.operacion("obtenerTop");
+        mostrarEstadisticas = operaciones.operacion("mostrarEstadisticas");
+    }
+
+    @TearDown(Level.Trial)
+    public void terminar() throws Exception {
+        operaciones.close();
+    }
+
+    @Benchmark
+    public long obtenerRanking() {
+        return obtenerRanking.getAsLong();
+    }
+
+    @Benchmark
+    public long obtenerTop() {
+        return obtenerTop.getAsLong();
+    }
+
+    @Benchmark
+    public long mostrarEstadisticas() {
+        return mostrarEstadisticas.getAsLong();
+    }
+}
@@ -0,0 +1,56 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Clase que mide la carga de historiales sinteticos de distintos tamanos con JMH
+ * Antes de cada carga se lee un registro nuevo, asi las estadisticas no se acumulan
+ * entre operaciones. Las operaciones las prepara OperacionesHistorial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BenchmarkHistorial {
+    // BenchmarkJuego --grande agrega 10000000
+    @Param({"1000", "10000", "100000", "1000000"})
+    private long lineas;
+
+    private Operaciones operaciones;
+    private LongSupplier registroNuevo;
+    private LongSupplier cargarHistorial;
+    private LongSupplier recorridoSecuencial;
+
+    @Setup(Level.Trial)
+    public void preparar() throws ReflectiveOperationException {
+        operaciones = Operaciones.crear("OperacionesHistorial", lineas);
+        registroNuevo = operaciones.operacion("registroNuevo");
+        cargarHistorial = operaciones.operacion("cargarHistorial");
+        recorridoSecuencial = operaciones.operacion("recorridoSecuencial");
+    }
+
+    @Setup(Level.Invocation)
+    public void registroNuevo() {
+        registroNuevo.getAsLong();
+    }
+
+    @TearDown(Level.Trial)
+    public void terminar() throws Exception {
+        operaciones.close();
+    }
+
+    @Benchmark
+    public long cargarHistorial() {
+        return cargarHistorial.getAsLong();
+    }
+
+    @Benchmark
+    public long recorridoSecuencial() {
+        return recorridoSecuencial.getAsLong();
+    }
+}
@@ -0,0 +1,29 @@
+package benchmark;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Interfaz que entrega las operaciones medidas por los benchmarks de JMH
+ * JMH no acepta benchmarks en el paquete por defecto y desde un paquete con nombre no se
+ * pueden usar las clases del juego; por eso las operaciones se preparan en clases del
+ * paquete por defecto que implementan esta interfaz y los benchmarks solo las llaman.
+ */
+public interface Operaciones extends AutoCloseable {
+    /**
+     * Obtiene una operacion ya preparada; devuelve un valor para que el JIT no la elimine
+     */
+    LongSupplier operacion(String nombre);
+
+    @Override
+    default void close() throws Exception {
+    }
+
+    /**
+     * Crea las operaciones de una clase del paquete por defecto
+     * @param clase Nombre de la clase, con un constructor que recibe un long
+     * @param parametro Tamano del caso (corredores, lineas, etc.)
+     */
+    static Operaciones crear(String clase, long parametro) throws ReflectiveOperationException {
+        return (Operaciones) Class.forName(clase).getConstructor(long.class).newInstance(parametro);
+    }
+}
@@ -0,0 +1,78 @@
+import java.util.SplittableRandom;
+
+/**
+ * Clase que implementa una fuente aleatoria con semilla y divisible por carrera
+ * Usa el mismo generador SplitMix64 que SplittableRandom, pero se puede reiniciar
+ * con otra semilla sin crear objetos nuevos. No es segura entre hilos: cada hilo
+ * o carrera debe tener su propia instancia. Cada carrera de una serie recibe su propia
+ * semilla con semillaCarrera, y con esa sola semilla la carrera se repite exactamente.
+ */
+public class AleatorioDivisible implements FuenteAleatoria {
+    private static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long semilla;
+    private long estado;
+
+    /**
+     * Constructor con una semilla aleatoria
+     */
+    public AleatorioDivisible() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructor con una semilla fija
+     */
+    public AleatorioDivisible(long semilla) {
+        reiniciar(semilla);
+    }
+
+    /**
+     * Vuelve a empezar la secuencia desde una semilla
+     */
+    public void reiniciar(long semilla) {
+        this.semilla = semilla;
+        this.estado = semilla;
+    }
+
+    /**
+     * Calcula la semilla de la carrera numero indice de una serie
+     * El resultado no depende de que hilo simule la carrera
+     */
+    public static long semillaCarrera(long semillaBase, long indice) {
+        return mezclar(semillaBase + indice * GAMMA);
+    }
+
+    /**
+     * Obtiene el siguiente long de la secuencia
+     */
+    public long siguienteLong() {
+        estado += GAMMA;
+        return mezclar(estado);
+    }
+
+    @Override
+    public int enteroEntre(int minimo, int maximo) {
+        long rango = (long) maximo - minimo + 1;
+        return minimo + (int) (((siguienteLong() >>> 32) * rango) >>> 32);
+    }
+
+    @Override
+    public double siguienteDouble() {
+        return (siguienteLong() >>> 11) * 0x1.0p-53;
+    }
+
+    @Override
+    public long getSemilla() {
+        return semilla;
+    }
+
+    /**
+     * Funcion de mezcla de SplitMix64
+     */
+    private static long mezclar(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,240 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Clase que calcula estadisticas del historial en una sola pasada
+ * Recibe las carreras una por una y solo guarda acumuladores, nunca el historial.
+ * La memoria depende del tamano del roster y de los pares que se enfrentaron,
+ * no de la cantidad de carreras.
+ * Dos analisis de tramos consecutivos del historial se pueden combinar.
+ */
+public class AnalisisHistorial implements VisitanteHistorial {
+    private int cantidadCorredores;
+    private int tamanoVentana;
+    private Acumulado[] acumulados;
+
+    // Veces que un corredor termino antes que otro, solo para los pares que se enfrentaron
+    private ConteoEnfrentamientos adelante;
+
+    /**
+     * Constructor del analisis vacio
+     * @param cantidadCorredores Tamano del roster (ids de 0 a cantidad - 1)
+     * @param tamanoVentana Cantidad de carreras recientes para el porcentaje reciente
+     */
+    public AnalisisHistorial(int cantidadCorredores, int tamanoVentana) {
+        this.cantidadCorredores = cantidadCorredores;
+        this.tamanoVentana = tamanoVentana;
+        this.acumulados = new Acumulado[cantidadCorredores];
+        for (int i = 0; i < cantidadCorredores; i++) {
+            acumulados[i] = new Acumulado(tamanoVentana);
+        }
+        this.adelante = new ConteoEnfrentamientos();
+    }
+
+    /**
+     * Estima la memoria de un analisis vacio, para decidir cuantos tramos recorrer a la vez
+     */
+    public static long memoriaEstimada(int cantidadCorredores, int tamanoVentana) {
+        // Acumulado con su histograma y su ventana, mas la referencia en el arreglo
+        return (long) cantidadCorredores * (120 + tamanoVentana);
+    }
+
+    /**
+     * Procesa una carrera del historial
+     */
+    @Override
+    public void carrera(int[] ids, int[] posiciones) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] < 0 || ids[i] >= cantidadCorredores) {
+                continue;
+            }
+
+            acumulados[ids[i]].registrar(posiciones[i]);
+
+            for (int j = 0; j < ids.length; j++) {
+                if (j != i && ids[j] >= 0 && ids[j] < cantidadCorredores && posiciones[i] < posiciones[j]) {
+                    adelante.sumar(ids[i], ids[j], 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Agrega el analisis del tramo del historial que viene justo despues de este
+     */
+    public void combinar(AnalisisHistorial siguiente) {
+        if (siguiente.cantidadCorredores != cantidadCorredores || siguiente.tamanoVentana != tamanoVentana) {
+            throw new IllegalArgumentException("Los analisis no tienen el mismo roster o ventana");
+        }
+
+        for (int i = 0; i < cantidadCorredores; i++) {
+            acumulados[i].combinar(siguiente.acumulados[i]);
+        }
+        adelante.combinar(siguiente.adelante);
+    }
+
+    /**
+     * Obtiene cuantas veces un corredor termino en cada lugar (indice 0 = primer lugar)
+     */
+    public long[] getHistogramaPosiciones(int id) {
+        return Arrays.copyOf(acumulados[id].histograma, acumulados[id].histograma.length);
+    }
+
+    /**
+     * Obtiene la racha de victorias seguidas mas larga de un corredor
+     */
+    public int getRachaMaxima(int id) {
+        return acumulados[id].rachaMaxima;
+    }
+
+    /**
+     * Obtiene la racha de victorias seguidas con que termina el historial
+     */
+    public int getRachaActual(int id) {
+        return acumulados[id].sufijo;
+    }
+
+    /**
+     * Obtiene el porcentaje de victorias en las ultimas carreras de un corredor
+     */
+    public double getPorcentajeReciente(int id) {
+        Acumulado a = acumulados[id];
+        if (a.llenos == 0) {
+            return 0.0;
+        }
+        return ((double) a.victoriasVentana / a.llenos) * 100;
+    }
+
+    /**
+     * Obtiene cuantas veces el corredor i termino antes que el corredor j
+     */
+    public long getVecesAdelante(int i, int j) {
+        return adelante.obtener(i, j);
+    }
+
+    /**
+     * Muestra el analisis por consola
+     */
+    public void mostrar(RegistroCorredores corredores) {
+        ArrayList<Corredor> lista = corredores.getCorredores();
+        int cantidad = Math.min(lista.size(), cantidadCorredores);
+
+        System.out.println("--- Analisis por Corredor ---");
+        for (int i = 0; i < cantidad; i++) {
+            Acumulado a = acumulados[i];
+            System.out.println("Corredor: " + lista.get(i).getNombre());
+            System.out.print("  Lugares:");
+            for (int lugar = 0; lugar < a.histograma.length; lugar++) {
+                System.out.print(" " + (lugar + 1) + "°=" + a.histograma[lugar]);
+            }
+            System.out.println();
+            System.out.println("  Racha maxima de victorias: " + a.rachaMaxima);
+            System.out.println("  Racha actual de victorias: " + a.sufijo);
+            System.out.printf("  Victorias en las ultimas %d carreras: %.2f%%\n\n",
+                    a.llenos, getPorcentajeReciente(i));
+        }
+
+        System.out.println("--- Enfrentamientos Directos ---");
+        for (int i = 0; i < cantidad; i++) {
+            for (int j = i + 1; j < cantidad; j++) {
+                long ij = getVecesAdelante(i, j);
+                long ji = getVecesAdelante(j, i);
+                if (ij + ji > 0) {
+                    System.out.println(lista.get(i).getNombre() + " " + ij + " - " + ji + " " +
+                            lista.get(j).getNombre());
+                }
+            }
+        }
+        System.out.println("---------------------------------");
+    }
+
+    /**
+     * Acumuladores de un corredor en un tramo del historial
+     */
+    private static class Acumulado {
+        private long carreras;
+        private long[] histograma;
+
+        // Rachas de victorias: al inicio del tramo, al final del tramo y la maxima
+        private int prefijo;
+        private int sufijo;
+        private int rachaMaxima;
+
+        // Ultimos resultados en un buffer circular (true = victoria)
+        private boolean[] ventana;
+        private int inicio;
+        private int llenos;
+        private int victoriasVentana;
+
+        Acumulado(int tamanoVentana) {
+            this.histograma = new long[3];
+            this.ventana = new boolean[tamanoVentana];
+        }
+
+        void registrar(int posicion) {
+            if (posicion > histograma.length) {
+                histograma = Arrays.copyOf(histograma, posicion);
+            }
+            if (posicion >= 1) {
+                histograma[posicion - 1]++;
+            }
+
+            boolean victoria = posicion == 1;
+            if (victoria) {
+                if (prefijo == carreras) {
+                    prefijo++;
+                }
+                sufijo++;
+                rachaMaxima = Math.max(rachaMaxima, sufijo);
+            } else {
+                sufijo = 0;
+            }
+            carreras++;
+
+            agregarAVentana(victoria);
+        }
+
+        void combinar(Acumulado siguiente) {
+            if (siguiente.histograma.length > histograma.length) {
+                histograma = Arrays.copyOf(histograma, siguiente.histograma.length);
+            }
+            for (int i = 0; i < siguiente.histograma.length; i++) {
+                histograma[i] += siguiente.histograma[i];
+            }
+
+            rachaMaxima = Math.max(Math.max(rachaMaxima, siguiente.rachaMaxima), sufijo + siguiente.prefijo);
+            if (prefijo == carreras) {
+                prefijo += siguiente.prefijo;
+            }
+            sufijo = siguiente.sufijo == siguiente.carreras ? sufijo + siguiente.sufijo : siguiente.sufijo;
+            carreras += siguiente.carreras;
+
+            // Los resultados del tramo siguiente son los mas recientes
+            for (int k = 0; k < siguiente.llenos; k++) {
+                agregarAVentana(siguiente.ventana[(siguiente.inicio + k) % siguiente.ventana.length]);
+            }
+        }
+
+        private void agregarAVentana(boolean victoria) {
+            if (ventana.length == 0) {
+                return;
+            }
+
+            if (llenos == ventana.length) {
+                // Sacar el resultado mas antiguo
+                if (ventana[inicio]) {
+                    victoriasVentana--;
+                }
+                ventana[inicio] = victoria;
+                inicio = (inicio + 1) % ventana.length;
+            } else {
+                ventana[(inicio + llenos) % ventana.length] = victoria;
+                llenos++;
+            }
+
+            if (victoria) {
+                victoriasVentana++;
+            }
+        }
+    }
+}
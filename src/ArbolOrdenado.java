@@ -0,0 +1,167 @@
+/**
+ * Clase que implementa un arbol ordenado de ids (treap) con tamanos por subarbol
+ * Permite insertar, eliminar, obtener el rango de un id y el k-esimo en O(log n)
+ */
+public class ArbolOrdenado {
+    /**
+     * Compara dos ids segun el orden del arbol
+     */
+    public interface Comparador {
+        int comparar(int a, int b);
+    }
+
+    private static class Nodo {
+        int id;
+        long prioridad;
+        int tamano;
+        Nodo izquierdo;
+        Nodo derecho;
+
+        Nodo(int id, long prioridad) {
+            this.id = id;
+            this.prioridad = prioridad;
+            this.tamano = 1;
+        }
+    }
+
+    private Nodo raiz;
+    private Comparador comparador;
+    private AleatorioDivisible prioridades;
+
+    // Resultado de la ultima division (evita crear arreglos en cada operacion)
+    private Nodo menores;
+    private Nodo mayores;
+
+    /**
+     * Constructor del arbol vacio
+     * El comparador debe ser un orden total: dos ids distintos nunca son iguales
+     */
+    public ArbolOrdenado(Comparador comparador) {
+        this.comparador = comparador;
+        this.prioridades = new AleatorioDivisible(0x5EED);
+    }
+
+    /**
+     * Inserta un id en el arbol
+     */
+    public void insertar(int id) {
+        dividir(raiz, id, false);
+        Nodo izquierda = menores;
+        Nodo derecha = mayores;
+        raiz = unir(unir(izquierda, new Nodo(id, prioridades.siguienteLong())), derecha);
+    }
+
+    /**
+     * Elimina un id del arbol
+     * El id debe seguir ordenado con las mismas claves con que se inserto
+     */
+    public void eliminar(int id) {
+        dividir(raiz, id, false);
+        Nodo izquierda = menores;
+        dividir(mayores, id, true);
+        raiz = unir(izquierda, mayores);
+    }
+
+    /**
+     * Obtiene cuantos ids estan antes que el id indicado (rango desde 0)
+     * @return El rango, o -1 si el id no esta en el arbol
+     */
+    public int rango(int id) {
+        int antes = 0;
+        Nodo actual = raiz;
+        while (actual != null) {
+            int cmp = comparador.comparar(id, actual.id);
+            if (cmp < 0) {
+                actual = actual.izquierdo;
+            } else if (cmp > 0) {
+                antes += tamano(actual.izquierdo) + 1;
+                actual = actual.derecho;
+            } else {
+                return antes + tamano(actual.izquierdo);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Obtiene el id en la posicion k (desde 0)
+     * @return El id, o -1 si k esta fuera de rango
+     */
+    public int kEsimo(int k) {
+        Nodo actual = raiz;
+        while (actual != null) {
+            int izquierdo = tamano(actual.izquierdo);
+            if (k < izquierdo) {
+                actual = actual.izquierdo;
+            } else if (k > izquierdo) {
+                k -= izquierdo + 1;
+                actual = actual.derecho;
+            } else {
+                return actual.id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Obtiene la cantidad de ids en el arbol
+     */
+    public int tamano() {
+        return tamano(raiz);
+    }
+
+    /**
+     * Divide un subarbol en los ids menores y mayores que el id indicado
+     * Si incluirIgual es true, el id indicado queda en menores; si no, en mayores
+     */
+    private void dividir(Nodo nodo, int id, boolean incluirIgual) {
+        if (nodo == null) {
+            menores = null;
+            mayores = null;
+            return;
+        }
+
+        int cmp = comparador.comparar(nodo.id, id);
+        if (cmp < 0 || (cmp == 0 && incluirIgual)) {
+            dividir(nodo.derecho, id, incluirIgual);
+            nodo.derecho = menores;
+            actualizar(nodo);
+            menores = nodo;
+        } else {
+            dividir(nodo.izquierdo, id, incluirIgual);
+            nodo.izquierdo = mayores;
+            actualizar(nodo);
+            mayores = nodo;
+        }
+    }
+
+    /**
+     * Une dos subarboles donde todos los ids de a van antes que los de b
+     */
+    private Nodo unir(Nodo a, Nodo b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+
+        if (a.prioridad > b.prioridad) {
+            a.derecho = unir(a.derecho, b);
+            actualizar(a);
+            return a;
+        } else {
+            b.izquierdo = unir(a, b.izquierdo);
+            actualizar(b);
+            return b;
+        }
+    }
+
+    private static void actualizar(Nodo nodo) {
+        nodo.tamano = 1 + tamano(nodo.izquierdo) + tamano(nodo.derecho);
+    }
+
+    private static int tamano(Nodo nodo) {
+        return nodo == null ? 0 : nodo.tamano;
+    }
+}
@@ -0,0 +1,244 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Clase que guarda los resultados de Monte Carlo de los enfrentamientos ya consultados
+ * La clave es una firma del enfrentamiento que no depende del orden de los participantes:
+ * incluye los valores de cada corredor y de su power-up, asi que si cambian los valores
+ * de personajes.csv las consultas nuevas nunca usan un resultado viejo. Tiene un limite
+ * de entradas (se descartan las usadas hace mas tiempo) y un tiempo de vida por entrada.
+ * Si varios hilos piden a la vez un enfrentamiento que falta, se simula una sola vez.
+ */
+public class CacheEnfrentamientos {
+    private final int capacidad;
+    private final long vidaNanos;
+    private final LinkedHashMap<String, Entrada> entradas;
+
+    // Metricas
+    private long aciertos;
+    private long fallos;
+    private long expirados;
+    private long descartados;
+
+    /**
+     * Constructor de la cache
+     * @param capacidad Maxima cantidad de enfrentamientos guardados
+     * @param vidaMilisegundos Tiempo que un resultado sigue siendo valido
+     */
+    public CacheEnfrentamientos(int capacidad, long vidaMilisegundos) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva");
+        }
+        this.capacidad = capacidad;
+        this.vidaNanos = TimeUnit.MILLISECONDS.toNanos(vidaMilisegundos);
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> mayor) {
+                if (size() > CacheEnfrentamientos.this.capacidad) {
+                    descartados++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Obtiene el resultado de un enfrentamiento, simulandolo solo si no esta guardado
+     * @param calcular Simula el enfrentamiento con los participantes en el orden recibido
+     * @return Un resultado propio con los participantes en el orden recibido
+     */
+    public ResultadoMonteCarlo obtener(ArrayList<Corredor> participantes, long carreras,
+                                       Supplier<ResultadoMonteCarlo> calcular) {
+        int[] orden = ordenCanonico(participantes);
+        String clave = firma(participantes, orden, carreras);
+
+        Entrada entrada;
+        boolean calcularAqui = false;
+        synchronized (this) {
+            long ahora = System.nanoTime();
+            entrada = entradas.get(clave);
+            if (entrada != null && entrada.tarea.isDone() && ahora - entrada.creada > vidaNanos) {
+                entradas.remove(clave);
+                expirados++;
+                entrada = null;
+            }
+
+            if (entrada == null) {
+                String[] nombres = new String[orden.length];
+                for (int k = 0; k < orden.length; k++) {
+                    nombres[k] = participantes.get(orden[k]).getNombre();
+                }
+                entrada = new Entrada(nombres, new FutureTask<>(() -> calcular.get().reordenar(orden)), ahora);
+                entradas.put(clave, entrada);
+                fallos++;
+                calcularAqui = true;
+            } else {
+                aciertos++;
+            }
+            Metricas.consultaCache(!calcularAqui);
+        }
+
+        // La simulacion se hace fuera del cerrojo; los demas hilos esperan el mismo resultado
+        if (calcularAqui) {
+            entrada.tarea.run();
+            synchronized (this) {
+                entrada.creada = System.nanoTime();
+            }
+        }
+
+        ResultadoMonteCarlo canonico;
+        try {
+            canonico = entrada.tarea.get();
+        } catch (ExecutionException e) {
+            synchronized (this) {
+                entradas.remove(clave, entrada);
+            }
+            throw new IllegalStateException("Error al simular el enfrentamiento", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Se interrumpio la consulta del enfrentamiento", e);
+        }
+
+        // Pasar del orden canonico al orden de la consulta
+        int[] inverso = new int[orden.length];
+        for (int k = 0; k < orden.length; k++) {
+            inverso[orden[k]] = k;
+        }
+        return canonico.reordenar(inverso);
+    }
+
+    /**
+     * Borra todos los resultados guardados
+     */
+    public synchronized void invalidar() {
+        entradas.clear();
+    }
+
+    /**
+     * Borra los resultados de los enfrentamientos en los que participa un corredor
+     * @return Cantidad de resultados borrados
+     */
+    public synchronized int invalidar(String nombre) {
+        int borrados = 0;
+        Iterator<Entrada> it = entradas.values().iterator();
+        while (it.hasNext()) {
+            for (String participante : it.next().nombres) {
+                if (participante.equals(nombre)) {
+                    it.remove();
+                    borrados++;
+                    break;
+                }
+            }
+        }
+        return borrados;
+    }
+
+    public synchronized long getAciertos() {
+        return aciertos;
+    }
+
+    public synchronized long getFallos() {
+        return fallos;
+    }
+
+    public synchronized long getExpirados() {
+        return expirados;
+    }
+
+    public synchronized long getDescartados() {
+        return descartados;
+    }
+
+    public synchronized int getTamano() {
+        return entradas.size();
+    }
+
+    /**
+     * Obtiene la fraccion de consultas que se respondieron sin simular
+     */
+    public synchronized double getTasaAciertos() {
+        long consultas = aciertos + fallos;
+        return consultas == 0 ? 0.0 : (double) aciertos / consultas;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Cache de enfrentamientos: %d guardados, %d aciertos, %d fallos (%.1f%% aciertos), " +
+                        "%d expirados, %d descartados",
+                entradas.size(), aciertos, fallos, getTasaAciertos() * 100, expirados, descartados);
+    }
+
+    /**
+     * Ordena los participantes por sus valores, asi el mismo grupo da siempre el mismo orden
+     * @return Indices de los participantes en orden canonico
+     */
+    private static int[] ordenCanonico(ArrayList<Corredor> participantes) {
+        int[] orden = new int[participantes.size()];
+        for (int i = 0; i < orden.length; i++) {
+            orden[i] = i;
+        }
+        OrdenadorPosiciones.ordenarIndices(orden, (a, b) -> {
+            DefinicionCorredor x = participantes.get(a).getDefinicion();
+            DefinicionCorredor y = participantes.get(b).getDefinicion();
+            int comparacion = x.getNombre().compareTo(y.getNombre());
+            if (comparacion == 0) {
+                comparacion = Integer.compare(x.getId(), y.getId());
+            }
+            if (comparacion == 0) {
+                comparacion = Integer.compare(x.getVelocidadBase(), y.getVelocidadBase());
+            }
+            if (comparacion == 0) {
+                comparacion = x.getPowerUp().getNombre().compareTo(y.getPowerUp().getNombre());
+            }
+            if (comparacion == 0) {
+                comparacion = Integer.compare(x.getPowerUp().getBonus(), y.getPowerUp().getBonus());
+            }
+            if (comparacion == 0) {
+                comparacion = Integer.compare(x.getPowerUp().getDuracion(), y.getPowerUp().getDuracion());
+            }
+            return comparacion;
+        });
+        return orden;
+    }
+
+    /**
+     * Arma la firma del enfrentamiento con los valores que influyen en el resultado
+     * El id se incluye porque desempata llegadas a la misma distancia.
+     */
+    private static String firma(ArrayList<Corredor> participantes, int[] orden, long carreras) {
+        StringBuilder firma = new StringBuilder();
+        for (int indice : orden) {
+            DefinicionCorredor definicion = participantes.get(indice).getDefinicion();
+            PowerUp powerUp = definicion.getPowerUp();
+            firma.append(definicion.getNombre()).append('\u0000')
+                    .append(definicion.getId()).append(',')
+                    .append(definicion.getVelocidadBase()).append(',')
+                    .append(powerUp.getNombre()).append('\u0000')
+                    .append(powerUp.getBonus()).append(',')
+                    .append(powerUp.getDuracion()).append(';');
+        }
+        return firma.append(carreras).toString();
+    }
+
+    /**
+     * Resultado guardado (o en calculo) de un enfrentamiento
+     */
+    private static class Entrada {
+        private final String[] nombres;
+        private final FutureTask<ResultadoMonteCarlo> tarea;
+        private long creada;    // cuando termino la simulacion
+
+        Entrada(String[] nombres, FutureTask<ResultadoMonteCarlo> tarea, long creada) {
+            this.nombres = nombres;
+            this.tarea = tarea;
+            this.creada = creada;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Clase que calcula sin simular las probabilidades de una carrera en modo clasico
+ * Cada corredor avanza en forma independiente de los demas, asi que para cada uno se
+ * calcula por programacion dinamica la distribucion de su distancia en cada turno,
+ * con estados (distancia, turnos de power-up restantes). Esas distribuciones se
+ * guardan por valores del corredor y se combinan entre los participantes, turno por
+ * turno, con las mismas reglas de desempate que OrdenadorPosiciones.
+ * Supone un factor aleatorio exactamente uniforme; el modo de llegadas no se calcula.
+ */
+public class CalculadoraExacta {
+    private static final int FACTOR_MINIMO = -30;
+    private static final int FACTOR_MAXIMO = 30;
+    private static final int FACTORES = FACTOR_MAXIMO - FACTOR_MINIMO + 1;
+    private static final double MASA_MINIMA = 1e-15;    // probabilidad de seguir corriendo que se ignora
+    private static final int TURNOS_MAXIMOS = 2000;
+
+    private final ConcurrentHashMap<String, Distribucion> distribuciones = new ConcurrentHashMap<>();
+
+    /**
+     * Calcula las probabilidades de cada lugar para los participantes de una carrera
+     */
+    public ResultadoExacto calcular(ArrayList<Corredor> participantes) {
+        int cantidad = participantes.size();
+        String[] nombres = new String[cantidad];
+        int[] ids = new int[cantidad];
+        Distribucion[] corredores = new Distribucion[cantidad];
+        int turnos = 0;
+        for (int i = 0; i < cantidad; i++) {
+            DefinicionCorredor definicion = participantes.get(i).getDefinicion();
+            nombres[i] = definicion.getNombre();
+            ids[i] = definicion.getId();
+            corredores[i] = distribucion(definicion);
+            turnos = Math.max(turnos, corredores[i].getTurnos());
+        }
+
+        double[][] probabilidades = new double[cantidad][cantidad];
+        double turnosPromedio = 0;
+        double resuelta = 0;
+
+        for (int turno = 1; turno <= turnos; turno++) {
+            // Probabilidad de que la carrera termine justo en este turno
+            double sigue = 1;
+            double nadieLlega = 1;
+            for (Distribucion corredor : corredores) {
+                sigue *= corredor.sinLlegarAntes(turno);
+                nadieLlega *= corredor.sinLlegarAntes(turno) - corredor.llegada(turno);
+            }
+            double termina = sigue - nadieLlega;
+            turnosPromedio += termina * turno;
+            resuelta += termina;
+            if (termina <= 0) {
+                continue;
+            }
+
+            for (int i = 0; i < cantidad; i++) {
+                double[] distancias = corredores[i].distancias(turno);
+                if (distancias == null) {
+                    // Lo que sigue corriendo despues de los turnos calculados queda detras de todos
+                    sumarLugares(i, -1, corredores[i].sinLlegarAntes(turno), turno, corredores, ids,
+                            probabilidades[i]);
+                    continue;
+                }
+                for (int x = 0; x < distancias.length; x++) {
+                    sumarLugares(i, x, distancias[x], turno, corredores, ids, probabilidades[i]);
+                }
+            }
+        }
+
+        return new ResultadoExacto(nombres, probabilidades, turnosPromedio, Math.max(0, 1 - resuelta));
+    }
+
+    /**
+     * Suma las probabilidades de cada lugar de i cuando termina el turno en la distancia x
+     * y la carrera termina en ese turno
+     */
+    private static void sumarLugares(int i, int x, double masa, int turno, Distribucion[] corredores, int[] ids,
+                                     double[] lugaresDeI) {
+        if (masa == 0) {
+            return;
+        }
+        int cantidad = corredores.length;
+        double[] delante = new double[cantidad];
+        double[] delanteSinLlegar = new double[cantidad];
+        double[] detras = new double[cantidad];
+
+        // Para cada rival: probabilidad de quedar delante o detras de i
+        for (int j = 0; j < cantidad; j++) {
+            if (j == i) {
+                continue;
+            }
+            boolean ganaEmpate = ids[j] < ids[i] || (ids[j] == ids[i] && j < i);
+            detras[j] = corredores[j].hasta(turno, x, !ganaEmpate);
+            delante[j] = corredores[j].sinLlegarAntes(turno) - detras[j];
+            delanteSinLlegar[j] = delante[j] - corredores[j].llegada(turno);
+        }
+
+        double[] lugares = cantidadDelante(i, detras, delante);
+        if (x >= Carrera.META) {
+            for (int lugar = 0; lugar < cantidad; lugar++) {
+                lugaresDeI[lugar] += masa * lugares[lugar];
+            }
+        } else {
+            // Si i no llego, la carrera termina solo si llega algun rival
+            double[] sinLlegada = cantidadDelante(i, detras, delanteSinLlegar);
+            for (int lugar = 0; lugar < cantidad; lugar++) {
+                lugaresDeI[lugar] += masa * (lugares[lugar] - sinLlegada[lugar]);
+            }
+        }
+    }
+
+    /**
+     * Calcula todos los enfrentamientos posibles del roster con el tamano de carrera del simulador
+     */
+    public ArrayList<ResultadoExacto> calcularEnfrentamientos(ArrayList<Corredor> corredores) {
+        ArrayList<ResultadoExacto> resultados = new ArrayList<>();
+        SimuladorMonteCarlo.recorrerEnfrentamientos(corredores,
+                enfrentamiento -> resultados.add(calcular(enfrentamiento)));
+        return resultados;
+    }
+
+    /**
+     * Obtiene la probabilidad de que un corredor llegue a la meta en cada turno
+     * @return Arreglo indexado por turno (la posicion 0 no se usa)
+     */
+    public double[] distribucionLlegada(DefinicionCorredor definicion) {
+        Distribucion distribucion = distribucion(definicion);
+        double[] llegada = new double[distribucion.getTurnos() + 1];
+        for (int turno = 1; turno < llegada.length; turno++) {
+            llegada[turno] = distribucion.llegada(turno);
+        }
+        return llegada;
+    }
+
+    /**
+     * Obtiene la cantidad de distribuciones de corredores ya calculadas
+     */
+    public int getDistribucionesGuardadas() {
+        return distribuciones.size();
+    }
+
+    /**
+     * Distribucion del corredor; solo depende de su velocidad y de su power-up
+     */
+    private Distribucion distribucion(DefinicionCorredor definicion) {
+        PowerUp powerUp = definicion.getPowerUp();
+        String clave = definicion.getVelocidadBase() + "," + powerUp.getBonus() + "," + powerUp.getDuracion();
+        return distribuciones.computeIfAbsent(clave, k ->
+                new Distribucion(definicion.getVelocidadBase(), powerUp.getBonus(), powerUp.getDuracion()));
+    }
+
+    /**
+     * Distribucion de la cantidad de rivales que quedan delante de i
+     * @return Para cada lugar - 1, probabilidad de tener esa cantidad de rivales delante
+     */
+    private static double[] cantidadDelante(int i, double[] detras, double[] delante) {
+        double[] polinomio = new double[detras.length];
+        polinomio[0] = 1;
+        int grado = 0;
+        for (int j = 0; j < detras.length; j++) {
+            if (j == i) {
+                continue;
+            }
+            grado++;
+            for (int k = grado; k >= 0; k--) {
+                polinomio[k] = polinomio[k] * detras[j] + (k > 0 ? polinomio[k - 1] * delante[j] : 0);
+            }
+        }
+        return polinomio;
+    }
+
+    /**
+     * Distribucion de un corredor turno por turno, mientras no haya llegado a la meta
+     * Para el turno t guarda la probabilidad de cada distancia al final de t con la
+     * condicion de no haber llegado antes de t (las distancias desde META son llegadas).
+     */
+    private static class Distribucion {
+        private final double[][] porTurno;      // [turno - 1][distancia]
+        private final double[][] acumulada;     // [turno - 1][distancia]: suma de las menores
+        private final double[] llegadas;        // [turno - 1]
+        private final double[] sinLlegar;       // [turno - 1]: no llego antes de ese turno
+        private final double sinCalcular;       // sigue corriendo despues del ultimo turno calculado
+
+        Distribucion(int velocidadBase, int bonus, int duracion) {
+            int velocidadMaxima = velocidadBase + FACTOR_MAXIMO + Math.max(bonus, 0);
+            int largo = Carrera.META + Math.max(velocidadMaxima, 0) + 1;
+            // Un power-up que dura 0 turnos o menos igual suma su bonus en el turno que se activa
+            int duracionReal = Math.max(duracion, 1);
+
+            ArrayList<double[]> turnos = new ArrayList<>();
+            ArrayList<Double> llegadasPorTurno = new ArrayList<>();
+            ArrayList<Double> sinLlegarPorTurno = new ArrayList<>();
+
+            // estado[k][d]: a distancia d, con k turnos de power-up restantes (0 = inactivo)
+            double[][] estado = new double[duracionReal][Carrera.META];
+            double[][] siguiente = new double[duracionReal][Carrera.META + 1];
+            estado[0][0] = 1;
+            double restante = 1;
+
+            while (velocidadMaxima > 0 && restante > MASA_MINIMA && turnos.size() < TURNOS_MAXIMOS) {
+                double[] distancias = new double[largo + 1];
+                for (double[] fila : siguiente) {
+                    Arrays.fill(fila, 0);
+                }
+
+                for (int k = 0; k < duracionReal; k++) {
+                    for (int d = 0; d < Carrera.META; d++) {
+                        double masa = estado[k][d];
+                        if (masa == 0) {
+                            continue;
+                        }
+                        if (k == 0) {
+                            double activa = masa * Carrera.PROBABILIDAD_POWER_UP;
+                            repartir(masa - activa, d, velocidadBase, distancias, siguiente[0]);
+                            repartir(activa, d, velocidadBase + bonus, distancias, siguiente[duracionReal - 1]);
+                        } else {
+                            repartir(masa, d, velocidadBase + bonus, distancias, siguiente[k - 1]);
+                        }
+                    }
+                }
+
+                // Los repartos se anotaron como diferencias: acumularlas
+                acumularDiferencias(distancias, largo);
+                restante = 0;
+                for (int k = 0; k < duracionReal; k++) {
+                    acumularDiferencias(siguiente[k], Carrera.META);
+                    System.arraycopy(siguiente[k], 0, estado[k], 0, Carrera.META);
+                    for (int d = 0; d < Carrera.META; d++) {
+                        restante += estado[k][d];
+                    }
+                }
+
+                double llegada = 0;
+                double total = 0;
+                for (int x = 0; x < largo; x++) {
+                    total += distancias[x];
+                    if (x >= Carrera.META) {
+                        llegada += distancias[x];
+                    }
+                }
+                turnos.add(Arrays.copyOf(distancias, largo));
+                llegadasPorTurno.add(llegada);
+                sinLlegarPorTurno.add(total);
+            }
+
+            int cantidad = turnos.size();
+            this.sinCalcular = restante;
+            this.porTurno = turnos.toArray(new double[cantidad][]);
+            this.acumulada = new double[cantidad][largo + 1];
+            this.llegadas = new double[cantidad];
+            this.sinLlegar = new double[cantidad];
+            for (int t = 0; t < cantidad; t++) {
+                for (int x = 0; x < largo; x++) {
+                    acumulada[t][x + 1] = acumulada[t][x] + porTurno[t][x];
+                }
+                llegadas[t] = llegadasPorTurno.get(t);
+                sinLlegar[t] = sinLlegarPorTurno.get(t);
+            }
+        }
+
+        /**
+         * Anota como diferencias el avance de una masa con los 61 factores posibles
+         * Los factores que dejan la velocidad en 0 o menos no avanzan.
+         */
+        private static void repartir(double masa, int d, int velocidad, double[] distancias, double[] siguiente) {
+            if (masa == 0) {
+                return;
+            }
+            double porFactor = masa / FACTORES;
+            int detenidos = Math.min(Math.max(-velocidad - FACTOR_MINIMO + 1, 0), FACTORES);
+            if (detenidos > 0) {
+                anotar(distancias, siguiente, d, d, porFactor * detenidos);
+            }
+            if (detenidos < FACTORES) {
+                int desde = d + Math.max(velocidad + FACTOR_MINIMO, 1);
+                int hasta = d + velocidad + FACTOR_MAXIMO;
+                anotar(distancias, siguiente, desde, hasta, porFactor);
+            }
+        }
+
+        private static void anotar(double[] distancias, double[] siguiente, int desde, int hasta, double masa) {
+            distancias[desde] += masa;
+            distancias[hasta + 1] -= masa;
+            if (desde < Carrera.META) {
+                siguiente[desde] += masa;
+                siguiente[Math.min(hasta, Carrera.META - 1) + 1] -= masa;
+            }
+        }
+
+        private static void acumularDiferencias(double[] valores, int largo) {
+            double suma = 0;
+            for (int x = 0; x < largo; x++) {
+                suma += valores[x];
+                valores[x] = Math.max(suma, 0);
+            }
+        }
+
+        int getTurnos() {
+            return porTurno.length;
+        }
+
+        /**
+         * Probabilidad de cada distancia al final del turno sin haber llegado antes, o null
+         */
+        double[] distancias(int turno) {
+            return turno <= porTurno.length ? porTurno[turno - 1] : null;
+        }
+
+        /**
+         * Probabilidad de no haber llegado antes del turno
+         */
+        double sinLlegarAntes(int turno) {
+            return turno <= sinLlegar.length ? sinLlegar[turno - 1] : sinCalcular;
+        }
+
+        /**
+         * Probabilidad de llegar a la meta justo en el turno
+         */
+        double llegada(int turno) {
+            return turno <= llegadas.length ? llegadas[turno - 1] : 0;
+        }
+
+        /**
+         * Probabilidad de no haber llegado antes del turno y terminarlo antes de x
+         * Despues del ultimo turno calculado, lo que sigue corriendo se cuenta en la distancia -1.
+         * @param incluirX Si tambien cuenta terminar exactamente en x
+         */
+        double hasta(int turno, int x, boolean incluirX) {
+            if (turno > acumulada.length) {
+                return x >= 0 || incluirX ? sinCalcular : 0;
+            }
+            double[] suma = acumulada[turno - 1];
+            int limite = Math.max(Math.min(incluirX ? x + 1 : x, suma.length - 1), 0);
+            return suma[limite];
+        }
+    }
+}
@@ -1,4 +1,5 @@
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Clase que representa una carrera en el juego
@@ -6,14 +7,63 @@ import java.util.ArrayList;
  */
 public class Carrera {
     private ArrayList<Corredor> participantes;
-    private static final int META = 300;
-    private static final int PAUSA_TURNOS = 1000; // Milisegundos
+    private EscuchaCarrera escucha;
+    private FuenteAleatoria aleatorio;
+    private int turnosJugados;
+    private int[] turnosLlegada;
+    private int[] ids;
+    private RegistroLlegadas llegadas;
+    private int llegadasRequeridas; // 0 = modo clasico
+    private int turnosMaximos;      // 0 = sin limite
+    private boolean cortada;
+    public static final int META = 300;
+    public static final double PROBABILIDAD_POWER_UP = 0.15;
 
     /**
-     * Constructor de la carrera
+     * Constructor de la carrera mostrada por consola
      */
     public Carrera() {
+        this(new ConsolaCarrera());
+    }
+
+    /**
+     * Constructor de la carrera con un escucha de eventos
+     * Con EscuchaCarrera.SILENCIOSO la carrera se simula sin pausas ni salida
+     */
+    public Carrera(EscuchaCarrera escucha) {
+        this(escucha, new AleatorioDivisible());
+    }
+
+    /**
+     * Constructor de la carrera con un escucha y una fuente aleatoria
+     * Con la misma semilla la carrera se repite exactamente igual
+     */
+    public Carrera(EscuchaCarrera escucha, FuenteAleatoria aleatorio) {
         this.participantes = new ArrayList<>();
+        this.escucha = escucha;
+        this.aleatorio = aleatorio;
+        this.turnosJugados = 0;
+        this.llegadasRequeridas = 0;
+    }
+
+    /**
+     * Activa el modo de llegadas: la carrera sigue hasta que llegan a la meta
+     * la cantidad de corredores indicada, y ellos se ordenan por el momento exacto
+     * en que cruzaron la meta (turno mas fraccion del avance). Los corredores que
+     * ya llegaron no vuelven a avanzar. Con 0 se usa el modo clasico: la carrera
+     * termina en el turno en que alguien llega y se ordena por distancia.
+     */
+    public void setLlegadasRequeridas(int llegadasRequeridas) {
+        this.llegadasRequeridas = llegadasRequeridas;
+    }
+
+    /**
+     * Limita la cantidad de turnos: al llegar al limite la carrera termina aunque nadie
+     * haya llegado y se ordena con las distancias de ese momento. Con 0 no hay limite.
+     * Sirve cuando los participantes pueden no llegar nunca (velocidades que quedan en 0).
+     */
+    public void setTurnosMaximos(int turnosMaximos) {
+        this.turnosMaximos = turnosMaximos;
     }
 
     /**
@@ -24,101 +74,189 @@ public class Carrera {
         participantes.add(corredor);
     }
 
+    /**
+     * Reinicia las posiciones para volver a simular con los mismos participantes
+     */
+    public void reiniciar() {
+        for (Corredor corredor : participantes) {
+            corredor.reiniciarPosicion();
+        }
+        turnosJugados = 0;
+    }
+
     /**
      * Simula la carrera completa
      */
     public Corredor[] simular() {
         int turno = 1;
         boolean carreraTerminada = false;
+        boolean modoLlegadas = llegadasRequeridas > 0;
+        int requeridas = Math.min(llegadasRequeridas, participantes.size());
 
-        System.out.println("-----------------------------------------");
-        System.out.println("      INICIANDO CARRERA - META: " + META + "m");
-        System.out.println("-----------------------------------------");
+        prepararLlegadas();
 
-        mostrarParticipantes();
+        escucha.configuracionCarrera(aleatorio.getSemilla(), llegadasRequeridas);
+        escucha.inicioCarrera(participantes, META);
 
-        // Simular turnos hasta que alguien llegue a la meta
-        while (!carreraTerminada) {
-            System.out.println("--- TURNO " + turno + " ---");
+        // Simular turnos hasta que alguien llegue a la meta (o las llegadas requeridas)
+        while (!carreraTerminada && (turnosMaximos == 0 || turno <= turnosMaximos)) {
+            escucha.inicioTurno(turno);
+            int llegadasAntes = llegadas.getCantidad();
+
+            for (int i = 0; i < participantes.size(); i++) {
+                // Quien ya llego a la meta no vuelve a correr
+                if (turnosLlegada[i] != OrdenadorPosiciones.SIN_LLEGADA) {
+                    continue;
+                }
+
+                Corredor corredor = participantes.get(i);
 
-            for (Corredor corredor : participantes) {
                 // Activar power-up aleatoriamente
-                if (!corredor.tienePowerUpActivo() && Math.random() < 0.15) {
+                if (!corredor.tienePowerUpActivo() && aleatorio.siguienteDouble() < PROBABILIDAD_POWER_UP) {
                     corredor.activarPowerUp();
-                    System.out.println(corredor.getNombre() + " activo su power-up: " +
-                            corredor.getPowerUp().getNombre() + "!");
+                    escucha.powerUpActivado(corredor);
                 }
 
-                int avance = corredor.avanzar();
-                System.out.println(corredor.getNombre() + " avanzo " + avance + "m " +
-                        "(Total: " + corredor.getPosicionActual() + "m)" +
-                        (corredor.tienePowerUpActivo() ? " [POWER-UP ACTIVO]" : ""));
+                int posicionAnterior = corredor.getPosicionActual();
+                int avance = corredor.avanzar(aleatorio);
+                escucha.avance(corredor, avance);
 
                 // Verificar si llego a la meta
                 if (corredor.getPosicionActual() >= META) {
-                    carreraTerminada = true;
+                    turnosLlegada[i] = turno;
+                    llegadas.registrar(i, turno, META, posicionAnterior, avance);
+                    if (!modoLlegadas) {
+                        carreraTerminada = true;
+                    }
                 }
             }
 
-            turno++;
-
-            // Pausa entre turnos para visualizacion
-            try {
-                Thread.sleep(PAUSA_TURNOS);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+            // Las llegadas de este turno ya son definitivas
+            llegadas.cerrarTurno();
+            if (modoLlegadas) {
+                for (int lugar = llegadasAntes; lugar < llegadas.getCantidad(); lugar++) {
+                    int indice = llegadas.getIndice(lugar);
+                    escucha.llegada(participantes.get(indice), lugar + 1, llegadas.getTiempo(indice));
+                }
+                carreraTerminada = llegadas.getCantidad() >= requeridas;
             }
+
+            escucha.finTurno(turno);
+            turno++;
         }
 
+        turnosJugados = turno - 1;
+        cortada = !carreraTerminada;
+        Metricas.carrera(turnosJugados);
+
         // Determinar posiciones finales
-        return determinarPosiciones();
+        return determinarPosiciones(modoLlegadas);
     }
 
     /**
-     * Muestra los participantes de la carrera
+     * Prepara los arreglos de llegada para los participantes actuales
      */
-    private void mostrarParticipantes() {
-        System.out.println("Participantes:");
-        for (int i = 0; i < participantes.size(); i++) {
-            System.out.println((i + 1) + ". " + participantes.get(i));
+    private void prepararLlegadas() {
+        int cantidad = participantes.size();
+        if (turnosLlegada == null || turnosLlegada.length != cantidad) {
+            turnosLlegada = new int[cantidad];
+            ids = new int[cantidad];
+            llegadas = new RegistroLlegadas(ids);
         }
+        for (int i = 0; i < cantidad; i++) {
+            ids[i] = participantes.get(i).getId();
+        }
+        Arrays.fill(turnosLlegada, OrdenadorPosiciones.SIN_LLEGADA);
+        llegadas.reiniciar();
     }
 
     /**
      * Determina las posiciones finales de los corredores
+     * En modo clasico ordena por distancia, luego por turno de llegada y luego por id.
+     * En modo de llegadas primero van los que llegaron, en orden de llegada, y
+     * despues los demas por distancia.
      */
-    private Corredor[] determinarPosiciones() {
-        Corredor[] posiciones = participantes.toArray(new Corredor[0]);
+    private Corredor[] determinarPosiciones(boolean modoLlegadas) {
+        int cantidad = participantes.size();
+        int[] distancias = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            distancias[i] = participantes.get(i).getPosicionActual();
+        }
 
-        // Ordenar por posicion actual (mayor a menor)
-        for (int i = 0; i < posiciones.length - 1; i++) {
-            for (int j = 0; j < posiciones.length - i - 1; j++) {
-                if (posiciones[j].getPosicionActual() < posiciones[j + 1].getPosicionActual()) {
-                    Corredor temp = posiciones[j];
-                    posiciones[j] = posiciones[j + 1];
-                    posiciones[j + 1] = temp;
-                }
-            }
+        int[] orden;
+        if (modoLlegadas) {
+            orden = ordenarConLlegadas(llegadas, distancias, turnosLlegada, ids);
+        } else {
+            orden = OrdenadorPosiciones.ordenar(distancias, turnosLlegada, ids);
         }
 
-        // Mostrar resultados
-        System.out.println("-----------------------------------------");
-        System.out.println("RESULTADOS FINALES");
-        System.out.println("-----------------------------------------");
-        for (int i = 0; i < posiciones.length; i++) {
-            System.out.println((i + 1) + "° lugar: " + posiciones[i].getNombre() +
-                    " (" + posiciones[i].getPosicionActual() + "m)");
+        Corredor[] posiciones = new Corredor[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            posiciones[i] = participantes.get(orden[i]);
             posiciones[i].registrarCarrera(i + 1);
         }
-        System.out.println("-----------------------------------------");
+
+        escucha.resultados(posiciones);
 
         return posiciones;
     }
 
+    /**
+     * Ordena a los que llegaron por orden de llegada y al resto por distancia
+     * @return Indices de los participantes del primero al ultimo lugar
+     */
+    static int[] ordenarConLlegadas(RegistroLlegadas llegadas, int[] distancias, int[] turnosLlegada, int[] ids) {
+        int cantidad = distancias.length;
+        int[] orden = new int[cantidad];
+        int llegados = llegadas.getCantidad();
+        for (int lugar = 0; lugar < llegados; lugar++) {
+            orden[lugar] = llegadas.getIndice(lugar);
+        }
+
+        int[] resto = new int[cantidad - llegados];
+        int k = 0;
+        for (int i = 0; i < cantidad; i++) {
+            if (!llegadas.llego(i)) {
+                resto[k++] = i;
+            }
+        }
+        OrdenadorPosiciones.ordenarIndices(resto, OrdenadorPosiciones.comparador(distancias, turnosLlegada, ids));
+        System.arraycopy(resto, 0, orden, llegados, resto.length);
+        return orden;
+    }
+
     /**
      * Obtiene la lista de participantes
      */
     public ArrayList<Corredor> getParticipantes() {
         return participantes;
     }
-}
\ No newline at end of file
+
+    /**
+     * Obtiene la semilla de la fuente aleatoria de la carrera
+     */
+    public long getSemilla() {
+        return aleatorio.getSemilla();
+    }
+
+    /**
+     * Obtiene el registro de llegadas de la ultima simulacion
+     */
+    public RegistroLlegadas getLlegadas() {
+        return llegadas;
+    }
+
+    /**
+     * Obtiene la cantidad de turnos de la ultima simulacion
+     */
+    public int getTurnosJugados() {
+        return turnosJugados;
+    }
+
+    /**
+     * Indica si la ultima simulacion termino por el limite de turnos
+     */
+    public boolean isCortada() {
+        return cortada;
+    }
+}
@@ -0,0 +1,114 @@
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Clase que mantiene el catalogo de power-ups del juego
+ * Cada tipo de power-up existe una sola vez: todos los corredores que lo usan
+ * comparten la misma instancia. Se busca por nombre o por id en O(1).
+ */
+public class CatalogoPowerUps {
+    private ArrayList<PowerUp> porId;
+    private HashMap<String, PowerUp> porNombre;
+    private IndiceNombres indiceNombres;  // nombre en UTF-8 -> id
+
+    /**
+     * Constructor del catalogo vacio
+     */
+    public CatalogoPowerUps() {
+        this.porId = new ArrayList<>();
+        this.porNombre = new HashMap<>();
+        this.indiceNombres = new IndiceNombres();
+    }
+
+    /**
+     * Registra un tipo de power-up y le asigna el siguiente id
+     * @return El power-up registrado, o null si ya existia uno con el mismo nombre
+     */
+    public PowerUp registrar(String nombre, int bonus, int duracion) {
+        if (porNombre.containsKey(nombre)) {
+            return null;
+        }
+
+        PowerUp powerUp = new PowerUp(porId.size(), nombre, bonus, duracion);
+        porId.add(powerUp);
+        porNombre.put(nombre, powerUp);
+        indiceNombres.agregar(nombre, powerUp.getId());
+        return powerUp;
+    }
+
+    /**
+     * Obtiene el power-up con ese nombre
+     * Si no esta en el catalogo se deduce de su nombre y se registra, asi los
+     * siguientes corredores con el mismo power-up reciben la misma instancia
+     */
+    public PowerUp resolver(String nombre) {
+        PowerUp powerUp = porNombre.get(nombre);
+        if (powerUp != null) {
+            return powerUp;
+        }
+        return registrarDeducido(nombre);
+    }
+
+    /**
+     * Obtiene el power-up cuyo nombre son los bytes UTF-8 datos[desde, hasta)
+     * Solo crea el String del nombre si el power-up no estaba en el catalogo
+     */
+    public PowerUp resolver(byte[] datos, int desde, int hasta) {
+        int id = indiceNombres.buscar(datos, desde, hasta);
+        if (id >= 0) {
+            return porId.get(id);
+        }
+        return registrarDeducido(new String(datos, desde, hasta - desde, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Registra un power-up desconocido con bonus y duracion segun palabras de su nombre
+     */
+    private PowerUp registrarDeducido(String nombre) {
+        String minusculas = nombre.toLowerCase(Locale.ROOT);
+        int bonus = 20;
+        int duracion = 2;
+
+        // Variaciones segun el nombre
+        if (minusculas.contains("turbo") || minusculas.contains("nitro")) {
+            bonus = 30;
+            duracion = 1;
+        } else if (minusculas.contains("boost")) {
+            bonus = 25;
+            duracion = 2;
+        } else if (minusculas.contains("cafe") || minusculas.contains("coffee")) {
+            bonus = 20;
+            duracion = 3;
+        }
+
+        return registrar(nombre, bonus, duracion);
+    }
+
+    /**
+     * Busca un power-up por nombre
+     * @return El power-up, o null si no esta en el catalogo
+     */
+    public PowerUp buscarPorNombre(String nombre) {
+        return porNombre.get(nombre);
+    }
+
+    /**
+     * Busca un power-up por id
+     * @return El power-up, o null si el id no existe
+     */
+    public PowerUp buscarPorId(int id) {
+        if (id < 0 || id >= porId.size()) {
+            return null;
+        }
+        return porId.get(id);
+    }
+
+    /**
+     * Obtiene la cantidad de tipos de power-up
+     */
+    public int tamano() {
+        return porId.size();
+    }
+}
@@ -5,9 +5,10 @@
 public interface Competidor {
     /**
      * Avanza el corredor en la pista
+     * @param aleatorio Fuente de numeros aleatorios de la carrera
      * @return Distancia avanzada
      */
-    int avanzar();
+    int avanzar(FuenteAleatoria aleatorio);
 
     /**
      * Activa el power-up especial del corredor
@@ -0,0 +1,115 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Clase que muestra una carrera por consola
+ * Junta el texto de cada turno y lo imprime de una vez, con una pausa entre turnos
+ * para visualizacion. RenderizadorAsincrono usa el mismo formato desde otro hilo.
+ */
+public class ConsolaCarrera implements EscuchaCarrera {
+    static final int PAUSA_TURNOS = 1000; // Milisegundos
+
+    private final StringBuilder texto = new StringBuilder();
+
+    @Override
+    public void inicioCarrera(ArrayList<Corredor> participantes, int meta) {
+        escribirInicio(texto, participantes, meta);
+        mostrar();
+    }
+
+    @Override
+    public void inicioTurno(int turno) {
+        escribirTurno(texto, turno);
+    }
+
+    @Override
+    public void powerUpActivado(Corredor corredor) {
+        escribirPowerUp(texto, corredor.getDefinicion());
+    }
+
+    @Override
+    public void avance(Corredor corredor, int avance) {
+        escribirAvance(texto, corredor.getNombre(), avance, corredor.getPosicionActual(),
+                corredor.tienePowerUpActivo());
+    }
+
+    @Override
+    public void llegada(Corredor corredor, int lugar, double tiempo) {
+        escribirLlegada(texto, corredor.getNombre(), lugar, tiempo);
+    }
+
+    @Override
+    public void finTurno(int turno) {
+        mostrar();
+
+        // Pausa entre turnos para visualizacion
+        try {
+            Thread.sleep(PAUSA_TURNOS);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void resultados(Corredor[] posiciones) {
+        String[] nombres = new String[posiciones.length];
+        int[] distancias = new int[posiciones.length];
+        for (int i = 0; i < posiciones.length; i++) {
+            nombres[i] = posiciones[i].getNombre();
+            distancias[i] = posiciones[i].getPosicionActual();
+        }
+        escribirResultados(texto, nombres, distancias);
+        mostrar();
+    }
+
+    /**
+     * Imprime el texto acumulado con una sola llamada
+     */
+    private void mostrar() {
+        System.out.print(texto);
+        texto.setLength(0);
+    }
+
+    static void escribirInicio(StringBuilder texto, List<?> participantes, int meta) {
+        texto.append("-----------------------------------------\n");
+        texto.append("      INICIANDO CARRERA - META: ").append(meta).append("m\n");
+        texto.append("-----------------------------------------\n");
+
+        texto.append("Participantes:\n");
+        for (int i = 0; i < participantes.size(); i++) {
+            texto.append(i + 1).append(". ").append(participantes.get(i)).append('\n');
+        }
+    }
+
+    static void escribirTurno(StringBuilder texto, int turno) {
+        texto.append("--- TURNO ").append(turno).append(" ---\n");
+    }
+
+    static void escribirPowerUp(StringBuilder texto, DefinicionCorredor corredor) {
+        texto.append(corredor.getNombre()).append(" activo su power-up: ")
+                .append(corredor.getPowerUp().getNombre()).append("!\n");
+    }
+
+    static void escribirAvance(StringBuilder texto, String nombre, int avance, int total, boolean powerUpActivo) {
+        texto.append(nombre).append(" avanzo ").append(avance).append("m (Total: ").append(total).append("m)");
+        if (powerUpActivo) {
+            texto.append(" [POWER-UP ACTIVO]");
+        }
+        texto.append('\n');
+    }
+
+    static void escribirLlegada(StringBuilder texto, String nombre, int lugar, double tiempo) {
+        texto.append(String.format("%s llego a la meta en %d° lugar (tiempo %.2f turnos)\n", nombre, lugar, tiempo));
+    }
+
+    static void escribirResultados(StringBuilder texto, String[] nombres, int[] distancias) {
+        texto.append("-----------------------------------------\n");
+        texto.append("RESULTADOS FINALES\n");
+        texto.append("-----------------------------------------\n");
+        for (int i = 0; i < nombres.length; i++) {
+            texto.append(i + 1).append("° lugar: ").append(nombres[i])
+                    .append(" (").append(distancias[i]).append("m)\n");
+        }
+        texto.append("-----------------------------------------\n");
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Clase que cuenta cuantas veces un corredor termino antes que otro
+ * Solo guarda los pares que se enfrentaron, asi la memoria depende de los
+ * enfrentamientos del historial y no del cuadrado del roster.
+ * Usa una tabla hash de direccionamiento abierto con claves long.
+ */
+public class ConteoEnfrentamientos {
+    private long[] claves;   // (adelante << 32) | atras, 0 si la posicion esta vacia
+    private long[] cuentas;
+    private int cantidad;
+
+    /**
+     * Constructor del conteo vacio
+     */
+    public ConteoEnfrentamientos() {
+        this.claves = new long[16];
+        this.cuentas = new long[16];
+        this.cantidad = 0;
+    }
+
+    /**
+     * Suma veces en que el corredor adelante termino antes que el corredor atras
+     * Se ignora un corredor contra si mismo o un id negativo.
+     */
+    public void sumar(int adelante, int atras, long veces) {
+        if (adelante == atras || adelante < 0 || atras < 0) {
+            return;
+        }
+        long clave = clave(adelante, atras);
+        int posicion = buscarPosicion(clave);
+        if (claves[posicion] == 0) {
+            // Mantener la tabla a lo sumo a la mitad de su capacidad
+            if ((cantidad + 1) * 2 > claves.length) {
+                agrandar();
+                posicion = buscarPosicion(clave);
+            }
+            claves[posicion] = clave;
+            cantidad++;
+        }
+        cuentas[posicion] += veces;
+    }
+
+    /**
+     * Obtiene cuantas veces el corredor adelante termino antes que el corredor atras
+     */
+    public long obtener(int adelante, int atras) {
+        if (adelante == atras || adelante < 0 || atras < 0) {
+            return 0;
+        }
+        int posicion = buscarPosicion(clave(adelante, atras));
+        return claves[posicion] != 0 ? cuentas[posicion] : 0;
+    }
+
+    /**
+     * Suma a este conteo el de otro tramo del historial
+     */
+    public void combinar(ConteoEnfrentamientos otro) {
+        for (int i = 0; i < otro.claves.length; i++) {
+            long clave = otro.claves[i];
+            if (clave != 0) {
+                sumar((int) (clave >>> 32), (int) clave, otro.cuentas[i]);
+            }
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de pares guardados
+     */
+    public int tamano() {
+        return cantidad;
+    }
+
+    private static long clave(int adelante, int atras) {
+        return ((long) adelante << 32) | (atras & 0xFFFFFFFFL);
+    }
+
+    private int buscarPosicion(long clave) {
+        int mascara = claves.length - 1;
+        int i = hash(clave) & mascara;
+        while (claves[i] != 0 && claves[i] != clave) {
+            i = (i + 1) & mascara;
+        }
+        return i;
+    }
+
+    private void agrandar() {
+        long[] clavesAnteriores = claves;
+        long[] cuentasAnteriores = cuentas;
+        claves = new long[clavesAnteriores.length * 2];
+        cuentas = new long[clavesAnteriores.length * 2];
+        for (int i = 0; i < clavesAnteriores.length; i++) {
+            if (clavesAnteriores[i] != 0) {
+                int posicion = buscarPosicion(clavesAnteriores[i]);
+                claves[posicion] = clavesAnteriores[i];
+                cuentas[posicion] = cuentasAnteriores[i];
+            }
+        }
+    }
+
+    // Mezcla final de SplitMix64, asi pares de ids cercanos no caen juntos
+    private static int hash(long clave) {
+        long z = (clave ^ (clave >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (int) (z ^ (z >>> 31));
+    }
+}
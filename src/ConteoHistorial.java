@@ -0,0 +1,61 @@
+/**
+ * Clase que cuenta carreras, victorias y suma de posiciones por corredor al recorrer el historial
+ * Cada hilo cuenta en su propio conteo y al final los conteos se suman.
+ */
+public class ConteoHistorial implements VisitanteHistorial {
+    private long[] carreras;
+    private long[] victorias;
+    private long[] sumaPosiciones;
+
+    /**
+     * Constructor del conteo vacio para los corredores con ids 0..cantidadCorredores-1
+     */
+    public ConteoHistorial(int cantidadCorredores) {
+        this.carreras = new long[cantidadCorredores];
+        this.victorias = new long[cantidadCorredores];
+        this.sumaPosiciones = new long[cantidadCorredores];
+    }
+
+    /**
+     * Estima la memoria de un conteo vacio, para decidir cuantos tramos recorrer a la vez
+     */
+    public static long memoriaEstimada(int cantidadCorredores) {
+        return (long) cantidadCorredores * 3 * Long.BYTES;
+    }
+
+    @Override
+    public void carrera(int[] ids, int[] posiciones) {
+        for (int i = 0; i < ids.length; i++) {
+            int id = ids[i];
+            if (id >= 0) {
+                carreras[id]++;
+                sumaPosiciones[id] += posiciones[i];
+                if (posiciones[i] == 1) {
+                    victorias[id]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Suma a este conteo el de otro tramo del historial
+     */
+    public void combinar(ConteoHistorial otro) {
+        for (int id = 0; id < carreras.length; id++) {
+            carreras[id] += otro.carreras[id];
+            victorias[id] += otro.victorias[id];
+            sumaPosiciones[id] += otro.sumaPosiciones[id];
+        }
+    }
+
+    /**
+     * Suma el conteo a las estadisticas de los corredores
+     */
+    public void aplicar(EstadisticasConcurrentes estadisticas) {
+        for (int id = 0; id < carreras.length; id++) {
+            if (carreras[id] > 0) {
+                estadisticas.agregar(id, new EstadisticasCorredor(carreras[id], victorias[id], sumaPosiciones[id]));
+            }
+        }
+    }
+}
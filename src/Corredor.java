@@ -1,60 +1,39 @@
 /**
  * Clase que representa a un corredor en el juego
- * Contiene la informacion y estadisticas del corredor
+ * Reune su definicion (inmutable y compartible), su estado en la carrera actual
+ * y sus estadisticas de por vida.
  */
 public class Corredor implements Competidor {
-    private String nombre;
-    private int velocidadBase;
-    private PowerUp powerUp;
-    private int posicionActual;
-    private int turnosPowerUp;
-    private boolean powerUpActivo;
-
-    // Estadisticas
-    private int carrerasJugadas;
-    private int victorias;
-    private int sumaPosiciones;
+    private DefinicionCorredor definicion;
+    private EstadoCarrera estado;
+
+    // Estadisticas: propias hasta que el corredor entra a un registro
+    private EstadisticasCorredor estadisticas;
+    private EstadisticasConcurrentes almacen;
 
     /**
      * Constructor del corredor
      */
     public Corredor(String nombre, int velocidadBase, PowerUp powerUp) {
-        this.nombre = nombre;
-        this.velocidadBase = velocidadBase;
-        this.powerUp = powerUp;
-        this.posicionActual = 0;
-        this.turnosPowerUp = 0;
-        this.powerUpActivo = false;
-        this.carrerasJugadas = 0;
-        this.victorias = 0;
-        this.sumaPosiciones = 0;
+        this(new DefinicionCorredor(-1, nombre, velocidadBase, powerUp));
+    }
+
+    /**
+     * Constructor de un corredor a partir de una definicion existente
+     * La definicion se comparte; el estado y las estadisticas son propios.
+     */
+    public Corredor(DefinicionCorredor definicion) {
+        this.definicion = definicion;
+        this.estado = new EstadoCarrera(definicion);
+        this.estadisticas = new EstadisticasCorredor();
     }
 
     /**
      * Avanza el corredor en la pista
      */
     @Override
-    public int avanzar() {
-        // Factor aleatorio entre -30 y 30
-        int factorAleatorio = (int)(Math.random() * 61) - 30;
-        int velocidadTotal = velocidadBase + factorAleatorio;
-
-        // Si el power-up esta activo, suma su bonus
-        if (powerUpActivo) {
-            velocidadTotal += powerUp.getBonus();
-            turnosPowerUp--;
-            if (turnosPowerUp <= 0) {
-                powerUpActivo = false;
-            }
-        }
-
-        // Asegurar que la velocidad no sea negativa
-        if (velocidadTotal < 0) {
-            velocidadTotal = 0;
-        }
-
-        posicionActual += velocidadTotal;
-        return velocidadTotal;
+    public int avanzar(FuenteAleatoria aleatorio) {
+        return estado.avanzar(aleatorio);
     }
 
     /**
@@ -62,10 +41,7 @@ public class Corredor implements Competidor {
      */
     @Override
     public void activarPowerUp() {
-        if (!powerUpActivo) {
-            powerUpActivo = true;
-            turnosPowerUp = powerUp.getDuracion();
-        }
+        estado.activarPowerUp();
     }
 
     /**
@@ -73,70 +49,113 @@ public class Corredor implements Competidor {
      */
     @Override
     public boolean tienePowerUpActivo() {
-        return powerUpActivo;
+        return estado.tienePowerUpActivo();
     }
 
     /**
      * Reinicia la posicion del corredor para una nueva carrera
      */
     public void reiniciarPosicion() {
-        this.posicionActual = 0;
-        this.powerUpActivo = false;
-        this.turnosPowerUp = 0;
+        estado.reiniciar();
+    }
+
+    /**
+     * Crea una copia del corredor con la misma definicion
+     * La copia comparte la definicion y tiene su propio estado de carrera y estadisticas en cero
+     */
+    public Corredor copiar() {
+        return new Corredor(definicion);
+    }
+
+    /**
+     * Asigna el id del corredor dentro del registro
+     */
+    void asignarId(int id) {
+        this.definicion = definicion.conId(id);
+        this.estado = new EstadoCarrera(definicion);
+    }
+
+    /**
+     * Pasa las estadisticas del corredor al acumulador compartido del registro
+     * Desde entonces las carreras se pueden registrar desde cualquier hilo
+     */
+    void asignarEstadisticas(EstadisticasConcurrentes almacen) {
+        if (estadisticas.getCarrerasJugadas() > 0) {
+            almacen.agregar(getId(), estadisticas);
+        }
+        this.almacen = almacen;
+        this.estadisticas = null;
     }
 
     /**
      * Registra una carrera jugada
      */
     public void registrarCarrera(int posicion) {
-        carrerasJugadas++;
-        sumaPosiciones += posicion;
-        if (posicion == 1) {
-            victorias++;
+        if (almacen != null) {
+            almacen.registrar(getId(), posicion);
+        } else {
+            estadisticas.registrar(posicion);
         }
     }
 
     // Getters
+    public DefinicionCorredor getDefinicion() {
+        return definicion;
+    }
+
+    public EstadoCarrera getEstado() {
+        return estado;
+    }
+
+    /**
+     * Obtiene las estadisticas del corredor
+     * Si el corredor esta registrado, es una copia consistente del momento de la llamada
+     */
+    public EstadisticasCorredor getEstadisticas() {
+        if (almacen != null) {
+            return almacen.obtener(getId());
+        }
+        return estadisticas;
+    }
+
+    public int getId() {
+        return definicion.getId();
+    }
+
     public String getNombre() {
-        return nombre;
+        return definicion.getNombre();
     }
 
     public int getVelocidadBase() {
-        return velocidadBase;
+        return definicion.getVelocidadBase();
     }
 
     public PowerUp getPowerUp() {
-        return powerUp;
+        return definicion.getPowerUp();
     }
 
     public int getPosicionActual() {
-        return posicionActual;
+        return estado.getPosicionActual();
     }
 
-    public int getCarrerasJugadas() {
-        return carrerasJugadas;
+    public long getCarrerasJugadas() {
+        return getEstadisticas().getCarrerasJugadas();
     }
 
-    public int getVictorias() {
-        return victorias;
+    public long getVictorias() {
+        return getEstadisticas().getVictorias();
     }
 
     public double getPosicionPromedio() {
-        if (carrerasJugadas == 0) {
-            return 0.0;
-        }
-        return (double) sumaPosiciones / carrerasJugadas;
+        return getEstadisticas().getPosicionPromedio();
     }
 
     public double getPorcentajeVictorias() {
-        if (carrerasJugadas == 0) {
-            return 0.0;
-        }
-        return ((double) victorias / carrerasJugadas) * 100;
+        return getEstadisticas().getPorcentajeVictorias();
     }
 
     @Override
     public String toString() {
-        return nombre + " (Velocidad: " + velocidadBase + ", PowerUp: " + powerUp.getNombre() + ")";
+        return definicion.toString();
     }
 }
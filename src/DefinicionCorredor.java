@@ -0,0 +1,51 @@
+/**
+ * Clase que representa la definicion fija de un corredor
+ * Es inmutable: muchas carreras, incluso en hilos distintos, pueden usar la
+ * misma definicion sin copiarla ni sincronizarla.
+ */
+public final class DefinicionCorredor {
+    private final int id;
+    private final String nombre;
+    private final int velocidadBase;
+    private final PowerUp powerUp;
+
+    /**
+     * Constructor de la definicion
+     * @param id Id del corredor en el registro, -1 si todavia no fue registrado
+     */
+    public DefinicionCorredor(int id, String nombre, int velocidadBase, PowerUp powerUp) {
+        this.id = id;
+        this.nombre = nombre;
+        this.velocidadBase = velocidadBase;
+        this.powerUp = powerUp;
+    }
+
+    /**
+     * Crea la misma definicion con otro id
+     */
+    public DefinicionCorredor conId(int id) {
+        return new DefinicionCorredor(id, nombre, velocidadBase, powerUp);
+    }
+
+    // Getters
+    public int getId() {
+        return id;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public int getVelocidadBase() {
+        return velocidadBase;
+    }
+
+    public PowerUp getPowerUp() {
+        return powerUp;
+    }
+
+    @Override
+    public String toString() {
+        return nombre + " (Velocidad: " + velocidadBase + ", PowerUp: " + powerUp.getNombre() + ")";
+    }
+}
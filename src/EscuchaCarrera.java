@@ -0,0 +1,65 @@
+import java.util.ArrayList;
+
+/**
+ * Interfaz que recibe los eventos de una carrera
+ * Permite mostrar la carrera por consola o simularla sin ninguna salida
+ */
+public interface EscuchaCarrera {
+    /**
+     * Escucha que ignora todos los eventos (simulacion sin salida)
+     */
+    EscuchaCarrera SILENCIOSO = new EscuchaCarrera() {
+    };
+
+    /**
+     * Se llama antes de inicioCarrera con los datos necesarios para repetir la carrera
+     * @param semilla Semilla de la fuente aleatoria de la carrera
+     * @param llegadasRequeridas Llegadas del modo de llegadas, 0 en el modo clasico
+     */
+    default void configuracionCarrera(long semilla, int llegadasRequeridas) {
+    }
+
+    /**
+     * Se llama una vez antes del primer turno
+     */
+    default void inicioCarrera(ArrayList<Corredor> participantes, int meta) {
+    }
+
+    /**
+     * Se llama al comenzar cada turno
+     */
+    default void inicioTurno(int turno) {
+    }
+
+    /**
+     * Se llama cuando un corredor activa su power-up
+     */
+    default void powerUpActivado(Corredor corredor) {
+    }
+
+    /**
+     * Se llama despues de que un corredor avanza
+     */
+    default void avance(Corredor corredor, int avance) {
+    }
+
+    /**
+     * Se llama cuando se confirma el lugar de un corredor que llego a la meta
+     * Solo se usa en el modo de llegadas de la carrera
+     * @param tiempo Momento de llegada: turno anterior mas la fraccion del turno
+     */
+    default void llegada(Corredor corredor, int lugar, double tiempo) {
+    }
+
+    /**
+     * Se llama al terminar cada turno
+     */
+    default void finTurno(int turno) {
+    }
+
+    /**
+     * Se llama con las posiciones finales de la carrera
+     */
+    default void resultados(Corredor[] posiciones) {
+    }
+}
@@ -1,122 +1,117 @@
 import java.util.ArrayList;
+import java.util.Formatter;
 
 /**
  * Clase que maneja las estadisticas del juego
  * Muestra informacion sobre los corredores
  */
 public class Estadisticas {
+    private static final int TAMANO_RANKING = 3;
+
     private ArrayList<Corredor> corredores;
+    private EstadisticasConcurrentes estadisticas;
+    private TablaClasificacion clasificacion;
 
     /**
      * Constructor de estadisticas
      */
-    public Estadisticas(ArrayList<Corredor> corredores) {
-        this.corredores = corredores;
+    public Estadisticas(RegistroCorredores corredores) {
+        this.corredores = corredores.getCorredores();
+        this.estadisticas = corredores.getEstadisticas();
+        this.clasificacion = corredores.getClasificacion();
     }
 
     /**
      * Muestra todas las estadisticas del sistema
+     * El texto se arma completo y se imprime de una vez, aunque haya muchos corredores
      */
     public void mostrarEstadisticas() {
-        System.out.println("-----------------------------------------");
-        System.out.println("Estadisticas Generales");
-        System.out.println("-----------------------------------------");
-
-        mostrarEstadisticasIndividuales();
-        mostrarEstadisticasGlobales();
+        long inicio = Metricas.reloj();
+        StringBuilder texto = new StringBuilder();
+        Formatter formato = new Formatter(texto);
+        texto.append("-----------------------------------------\n");
+        texto.append("Estadisticas Generales\n");
+        texto.append("-----------------------------------------\n");
+
+        mostrarEstadisticasIndividuales(texto, formato);
+        mostrarEstadisticasGlobales(texto, formato);
+        System.out.print(texto);
+        Metricas.duracion(Metricas.ESTADISTICAS, inicio);
     }
 
     /**
      * Muestra las estadisticas de cada corredor
      */
-    private void mostrarEstadisticasIndividuales() {
-        System.out.println("--- Estadisticas por Corredor ---");
+    private void mostrarEstadisticasIndividuales(StringBuilder texto, Formatter formato) {
+        texto.append("--- Estadisticas por Corredor ---\n");
+
+        // Una sola lectura de todas las estadisticas, aunque haya carreras registrandose
+        EstadisticasCorredor[] instantanea = estadisticas.obtenerTodas(corredores.size());
 
         for (Corredor corredor : corredores) {
-            System.out.println("Corredor: " + corredor.getNombre());
-            System.out.println("  Carreras jugadas: " + corredor.getCarrerasJugadas());
-            System.out.println("  Victorias: " + corredor.getVictorias());
-            System.out.printf("  Posicion promedio: %.2f\n", corredor.getPosicionPromedio());
-            System.out.printf("  Porcentaje de victorias: %.2f%%\n\n", corredor.getPorcentajeVictorias());
+            EstadisticasCorredor actuales = instantanea[corredor.getId()];
+            texto.append("Corredor: ").append(corredor.getNombre()).append('\n');
+            texto.append("  Carreras jugadas: ").append(actuales.getCarrerasJugadas()).append('\n');
+            texto.append("  Victorias: ").append(actuales.getVictorias()).append('\n');
+            formato.format("  Posicion promedio: %.2f\n", actuales.getPosicionPromedio());
+            formato.format("  Porcentaje de victorias: %.2f%%\n", actuales.getPorcentajeVictorias());
+            texto.append("  Ranking en victorias: #")
+                    .append(clasificacion.obtenerRanking(corredor, MetricaClasificacion.VICTORIAS)).append("\n\n");
         }
     }
 
     /**
      * Muestra las estadisticas globales del sistema
      */
-    private void mostrarEstadisticasGlobales() {
-        System.out.println("--- Estadisticas Globales ---");
+    private void mostrarEstadisticasGlobales(StringBuilder texto, Formatter formato) {
+        texto.append("--- Estadisticas Globales ---\n");
 
         Corredor conMasVictorias = obtenerCorredorConMasVictorias();
         if (conMasVictorias != null) {
-            System.out.println("Personaje con mas victorias: " + conMasVictorias.getNombre() +
-                    " (" + conMasVictorias.getVictorias() + " victorias)");
+            texto.append("Personaje con mas victorias: ").append(conMasVictorias.getNombre())
+                    .append(" (").append(conMasVictorias.getVictorias()).append(" victorias)\n");
         }
 
         Corredor mejorPorcentaje = obtenerCorredorConMejorPorcentaje();
         if (mejorPorcentaje != null) {
-            System.out.printf("Personaje con mejor porcentaje de victorias: %s (%.2f%%)\n",
+            formato.format("Personaje con mejor porcentaje de victorias: %s (%.2f%%)\n",
                     mejorPorcentaje.getNombre(), mejorPorcentaje.getPorcentajeVictorias());
         }
 
         Corredor masUsado = obtenerCorredorMasUsado();
         if (masUsado != null) {
-            System.out.println("Personaje mas usado: " + masUsado.getNombre() +
-                    " (" + masUsado.getCarrerasJugadas() + " carreras)");
+            texto.append("Personaje mas usado: ").append(masUsado.getNombre())
+                    .append(" (").append(masUsado.getCarrerasJugadas()).append(" carreras)\n");
+        }
+
+        texto.append("Top ").append(TAMANO_RANKING).append(" en victorias:\n");
+        ArrayList<Corredor> top = clasificacion.obtenerTop(MetricaClasificacion.VICTORIAS, TAMANO_RANKING);
+        for (int i = 0; i < top.size(); i++) {
+            texto.append("  ").append(i + 1).append(". ").append(top.get(i).getNombre())
+                    .append(" (").append(top.get(i).getVictorias()).append(" victorias)\n");
         }
 
-        System.out.println("---------------------------------");
+        texto.append("---------------------------------\n");
     }
 
     /**
      * Obtiene el corredor con mas victorias
      */
     private Corredor obtenerCorredorConMasVictorias() {
-        Corredor mejor = null;
-        int maxVictorias = 0;
-
-        for (Corredor corredor : corredores) {
-            if (corredor.getVictorias() > maxVictorias) {
-                maxVictorias = corredor.getVictorias();
-                mejor = corredor;
-            }
-        }
-
-        return mejor;
+        return clasificacion.obtenerPrimero(MetricaClasificacion.VICTORIAS);
     }
 
     /**
      * Obtiene el corredor con mejor porcentaje de victorias
      */
     private Corredor obtenerCorredorConMejorPorcentaje() {
-        Corredor mejor = null;
-        double maxPorcentaje = 0.0;
-
-        for (Corredor corredor : corredores) {
-            if (corredor.getCarrerasJugadas() > 0 &&
-                    corredor.getPorcentajeVictorias() > maxPorcentaje) {
-                maxPorcentaje = corredor.getPorcentajeVictorias();
-                mejor = corredor;
-            }
-        }
-
-        return mejor;
+        return clasificacion.obtenerPrimero(MetricaClasificacion.PORCENTAJE_VICTORIAS);
     }
 
     /**
      * Obtiene el corredor mas usado por los jugadores
      */
     private Corredor obtenerCorredorMasUsado() {
-        Corredor masUsado = null;
-        int maxCarreras = 0;
-
-        for (Corredor corredor : corredores) {
-            if (corredor.getCarrerasJugadas() > maxCarreras) {
-                maxCarreras = corredor.getCarrerasJugadas();
-                masUsado = corredor;
-            }
-        }
-
-        return masUsado;
+        return clasificacion.obtenerPrimero(MetricaClasificacion.CARRERAS_JUGADAS);
     }
 }
@@ -0,0 +1,193 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Clase que acumula las estadisticas de todos los corredores desde varios hilos
+ * Cada hilo escribe en su propio fragmento de contadores, asi los hilos no compiten
+ * entre si; las lecturas suman los fragmentos. Cada fragmento se escribe y se lee
+ * bajo su propio cerrojo, por lo que una lectura nunca ve una carrera a medias
+ * (por ejemplo, una victoria sin su carrera jugada).
+ */
+public class EstadisticasConcurrentes {
+    private final CopyOnWriteArrayList<Fragmento> fragmentos;
+    private final ThreadLocal<Fragmento> propio;
+
+    /**
+     * Constructor del acumulador vacio
+     */
+    public EstadisticasConcurrentes() {
+        this.fragmentos = new CopyOnWriteArrayList<>();
+        this.propio = ThreadLocal.withInitial(() -> {
+            Fragmento fragmento = new Fragmento();
+            fragmentos.add(fragmento);
+            return fragmento;
+        });
+    }
+
+    /**
+     * Registra una carrera jugada por un corredor
+     */
+    public void registrar(int id, int posicion) {
+        Fragmento fragmento = propio.get();
+        long sello = fragmento.cerrojo.writeLock();
+        try {
+            fragmento.sumar(id, 1, posicion == 1 ? 1 : 0, posicion);
+        } finally {
+            fragmento.cerrojo.unlockWrite(sello);
+        }
+    }
+
+    /**
+     * Registra una carrera completa de una sola vez
+     * @param ids Ids de los participantes (los negativos se ignoran)
+     * @param posiciones Lugar de cada participante (1 es el ganador)
+     */
+    public void registrarCarrera(int[] ids, int[] posiciones) {
+        Fragmento fragmento = propio.get();
+        long sello = fragmento.cerrojo.writeLock();
+        try {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] >= 0) {
+                    fragmento.sumar(ids[i], 1, posiciones[i] == 1 ? 1 : 0, posiciones[i]);
+                }
+            }
+        } finally {
+            fragmento.cerrojo.unlockWrite(sello);
+        }
+    }
+
+    /**
+     * Suma estadisticas ya acumuladas a un corredor
+     */
+    public void agregar(int id, EstadisticasCorredor estadisticas) {
+        Fragmento fragmento = propio.get();
+        long sello = fragmento.cerrojo.writeLock();
+        try {
+            fragmento.sumar(id, estadisticas.getCarrerasJugadas(), estadisticas.getVictorias(),
+                    estadisticas.getSumaPosiciones());
+        } finally {
+            fragmento.cerrojo.unlockWrite(sello);
+        }
+    }
+
+    /**
+     * Obtiene las estadisticas actuales de un corredor
+     * @return Una copia que no cambia con las carreras siguientes
+     */
+    public EstadisticasCorredor obtener(int id) {
+        long[] total = new long[3];
+        for (Fragmento fragmento : fragmentos) {
+            long sello = fragmento.cerrojo.tryOptimisticRead();
+            long carreras = fragmento.leer(fragmento.carreras, id);
+            long victorias = fragmento.leer(fragmento.victorias, id);
+            long suma = fragmento.leer(fragmento.sumaPosiciones, id);
+
+            // Si un escritor entro mientras se leia, leer de nuevo con el cerrojo
+            if (!fragmento.cerrojo.validate(sello)) {
+                sello = fragmento.cerrojo.readLock();
+                try {
+                    carreras = fragmento.leer(fragmento.carreras, id);
+                    victorias = fragmento.leer(fragmento.victorias, id);
+                    suma = fragmento.leer(fragmento.sumaPosiciones, id);
+                } finally {
+                    fragmento.cerrojo.unlockRead(sello);
+                }
+            }
+            total[0] += carreras;
+            total[1] += victorias;
+            total[2] += suma;
+        }
+        return new EstadisticasCorredor(total[0], total[1], total[2]);
+    }
+
+    /**
+     * Obtiene las estadisticas de los corredores con ids 0..cantidad-1 de una sola pasada
+     */
+    public EstadisticasCorredor[] obtenerTodas(int cantidad) {
+        long[] carreras = new long[cantidad];
+        long[] victorias = new long[cantidad];
+        long[] suma = new long[cantidad];
+        for (Fragmento fragmento : fragmentos) {
+            long sello = fragmento.cerrojo.readLock();
+            try {
+                int hasta = Math.min(cantidad, fragmento.carreras.length);
+                for (int id = 0; id < hasta; id++) {
+                    carreras[id] += fragmento.carreras[id];
+                    victorias[id] += fragmento.victorias[id];
+                    suma[id] += fragmento.sumaPosiciones[id];
+                }
+            } finally {
+                fragmento.cerrojo.unlockRead(sello);
+            }
+        }
+
+        EstadisticasCorredor[] todas = new EstadisticasCorredor[cantidad];
+        for (int id = 0; id < cantidad; id++) {
+            todas[id] = new EstadisticasCorredor(carreras[id], victorias[id], suma[id]);
+        }
+        return todas;
+    }
+
+    /**
+     * Agrega a destino los ids que cambiaron desde la ultima llamada y los marca como leidos
+     * @return true si hubo algun cambio
+     */
+    public boolean tomarCambios(BitSet destino) {
+        boolean hubo = false;
+        for (Fragmento fragmento : fragmentos) {
+            if (!fragmento.conCambios) {
+                continue;
+            }
+            long sello = fragmento.cerrojo.writeLock();
+            try {
+                for (int palabra = 0; palabra < fragmento.cambiados.length; palabra++) {
+                    long bits = fragmento.cambiados[palabra];
+                    while (bits != 0) {
+                        destino.set(palabra * 64 + Long.numberOfTrailingZeros(bits));
+                        bits &= bits - 1;
+                    }
+                    fragmento.cambiados[palabra] = 0;
+                }
+                fragmento.conCambios = false;
+                hubo = true;
+            } finally {
+                fragmento.cerrojo.unlockWrite(sello);
+            }
+        }
+        return hubo;
+    }
+
+    /**
+     * Contadores escritos por un solo hilo
+     */
+    private static class Fragmento {
+        private final StampedLock cerrojo = new StampedLock();
+        private long[] carreras = new long[16];
+        private long[] victorias = new long[16];
+        private long[] sumaPosiciones = new long[16];
+        private long[] cambiados = new long[1];     // un bit por id
+        private volatile boolean conCambios;
+
+        // Se llama con el cerrojo de escritura tomado
+        void sumar(int id, long carrerasJugadas, long ganadas, long posiciones) {
+            if (id >= carreras.length) {
+                int nuevoTamano = Math.max(id + 1, carreras.length * 2);
+                carreras = Arrays.copyOf(carreras, nuevoTamano);
+                victorias = Arrays.copyOf(victorias, nuevoTamano);
+                sumaPosiciones = Arrays.copyOf(sumaPosiciones, nuevoTamano);
+                cambiados = Arrays.copyOf(cambiados, (nuevoTamano + 63) / 64);
+            }
+            carreras[id] += carrerasJugadas;
+            victorias[id] += ganadas;
+            sumaPosiciones[id] += posiciones;
+            cambiados[id >>> 6] |= 1L << id;
+            conCambios = true;
+        }
+
+        long leer(long[] valores, int id) {
+            return id < valores.length ? valores[id] : 0;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Clase que acumula las estadisticas de por vida de un corredor
+ */
+public class EstadisticasCorredor {
+    private long carrerasJugadas;
+    private long victorias;
+    private long sumaPosiciones;
+
+    /**
+     * Constructor de estadisticas en cero
+     */
+    public EstadisticasCorredor() {
+        this(0, 0, 0);
+    }
+
+    /**
+     * Constructor con valores ya acumulados
+     */
+    public EstadisticasCorredor(long carrerasJugadas, long victorias, long sumaPosiciones) {
+        this.carrerasJugadas = carrerasJugadas;
+        this.victorias = victorias;
+        this.sumaPosiciones = sumaPosiciones;
+    }
+
+    /**
+     * Registra una carrera jugada
+     */
+    public void registrar(int posicion) {
+        carrerasJugadas++;
+        sumaPosiciones += posicion;
+        if (posicion == 1) {
+            victorias++;
+        }
+    }
+
+    // Getters
+    public long getCarrerasJugadas() {
+        return carrerasJugadas;
+    }
+
+    public long getVictorias() {
+        return victorias;
+    }
+
+    public long getSumaPosiciones() {
+        return sumaPosiciones;
+    }
+
+    public double getPosicionPromedio() {
+        if (carrerasJugadas == 0) {
+            return 0.0;
+        }
+        return (double) sumaPosiciones / carrerasJugadas;
+    }
+
+    public double getPorcentajeVictorias() {
+        if (carrerasJugadas == 0) {
+            return 0.0;
+        }
+        return ((double) victorias / carrerasJugadas) * 100;
+    }
+}
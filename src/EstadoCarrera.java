@@ -0,0 +1,81 @@
+/**
+ * Clase que guarda el estado de un corredor durante una carrera
+ * Cada carrera tiene su propio estado; la definicion se comparte.
+ */
+public class EstadoCarrera implements Competidor {
+    private final DefinicionCorredor definicion;
+    private int posicionActual;
+    private int turnosPowerUp;
+    private boolean powerUpActivo;
+
+    /**
+     * Constructor del estado inicial de carrera para una definicion
+     */
+    public EstadoCarrera(DefinicionCorredor definicion) {
+        this.definicion = definicion;
+        reiniciar();
+    }
+
+    /**
+     * Avanza el corredor en la pista
+     */
+    @Override
+    public int avanzar(FuenteAleatoria aleatorio) {
+        // Factor aleatorio entre -30 y 30
+        int factorAleatorio = aleatorio.enteroEntre(-30, 30);
+        int velocidadTotal = definicion.getVelocidadBase() + factorAleatorio;
+
+        // Si el power-up esta activo, suma su bonus
+        if (powerUpActivo) {
+            velocidadTotal += definicion.getPowerUp().getBonus();
+            turnosPowerUp--;
+            if (turnosPowerUp <= 0) {
+                powerUpActivo = false;
+            }
+        }
+
+        // Asegurar que la velocidad no sea negativa
+        if (velocidadTotal < 0) {
+            velocidadTotal = 0;
+        }
+
+        posicionActual += velocidadTotal;
+        return velocidadTotal;
+    }
+
+    /**
+     * Activa el power-up del corredor
+     */
+    @Override
+    public void activarPowerUp() {
+        if (!powerUpActivo) {
+            powerUpActivo = true;
+            turnosPowerUp = definicion.getPowerUp().getDuracion();
+        }
+    }
+
+    /**
+     * Verifica si el power-up esta activo
+     */
+    @Override
+    public boolean tienePowerUpActivo() {
+        return powerUpActivo;
+    }
+
+    /**
+     * Vuelve a la salida para una nueva carrera
+     */
+    public void reiniciar() {
+        this.posicionActual = 0;
+        this.powerUpActivo = false;
+        this.turnosPowerUp = 0;
+    }
+
+    public DefinicionCorredor getDefinicion() {
+        return definicion;
+    }
+
+    public int getPosicionActual() {
+        return posicionActual;
+    }
+}
@@ -0,0 +1,20 @@
+/**
+ * Interfaz que define una fuente de numeros aleatorios para las carreras
+ * Permite inyectar fuentes con semilla para repetir una carrera exactamente
+ */
+public interface FuenteAleatoria {
+    /**
+     * Obtiene un entero uniforme entre minimo y maximo (ambos incluidos)
+     */
+    int enteroEntre(int minimo, int maximo);
+
+    /**
+     * Obtiene un double uniforme en [0, 1)
+     */
+    double siguienteDouble();
+
+    /**
+     * Obtiene la semilla con la que se inicio la fuente
+     */
+    long getSemilla();
+}
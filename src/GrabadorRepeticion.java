@@ -0,0 +1,247 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Clase que graba cada carrera turno por turno en un formato binario compacto
+ * Se usa como escucha de la carrera y pasa todos los eventos al escucha siguiente,
+ * asi se puede grabar una carrera mientras se muestra por consola.
+ *
+ * Formato de cada carrera (los enteros son varint, los con signo en zigzag):
+ *   largo del registro en bytes
+ *   long semilla (8 bytes), llegadas requeridas, cantidad de participantes
+ *   por participante: id, nombre, velocidad base, power-up (nombre, bonus, duracion)
+ *   cantidad de turnos y orden final (indice de participante por lugar)
+ *   por turno: un bit por participante que activo su power-up, y por cada participante
+ *   que corrio, la diferencia entre su avance y su velocidad base
+ * Corren en un turno los participantes que todavia no llegaron a la meta.
+ */
+public class GrabadorRepeticion implements EscuchaCarrera {
+    static final int MAGIA = 0x474B5231; // "GKR1"
+    static final int VERSION = 1;
+
+    private OutputStream salida;
+    private EscuchaCarrera siguiente;
+
+    // Registro de la carrera actual: la cabecera se completa al final con los resultados
+    private Bloque cabecera;
+    private Bloque turnos;
+    private Bloque largo;
+    private ArrayList<Corredor> participantes;
+    private long semilla;
+    private int llegadasRequeridas;
+    private int cantidadTurnos;
+    private int inicioBanderas;     // banderas de power-up del turno actual dentro de turnos
+    private int cursor;             // ultimo participante que genero un evento
+
+    /**
+     * Constructor del grabador
+     * @param archivoNuevo Si la salida esta vacia y hay que escribir el encabezado del archivo
+     * @param siguiente Escucha que recibe los eventos despues de grabarlos
+     */
+    public GrabadorRepeticion(OutputStream salida, boolean archivoNuevo, EscuchaCarrera siguiente) throws IOException {
+        this.salida = salida;
+        this.siguiente = siguiente;
+        this.cabecera = new Bloque();
+        this.turnos = new Bloque();
+        this.largo = new Bloque();
+
+        if (archivoNuevo) {
+            Bloque encabezado = new Bloque();
+            encabezado.escribirFijo(MAGIA, 4);
+            encabezado.escribirVarint(VERSION);
+            encabezado.copiarA(salida);
+        }
+    }
+
+    @Override
+    public void configuracionCarrera(long semilla, int llegadasRequeridas) {
+        this.semilla = semilla;
+        this.llegadasRequeridas = llegadasRequeridas;
+        siguiente.configuracionCarrera(semilla, llegadasRequeridas);
+    }
+
+    @Override
+    public void inicioCarrera(ArrayList<Corredor> participantes, int meta) {
+        this.participantes = participantes;
+        this.cantidadTurnos = 0;
+        this.cursor = 0;
+        cabecera.reiniciar();
+        turnos.reiniciar();
+
+        cabecera.escribirFijo(semilla, 8);
+        cabecera.escribirVarint(llegadasRequeridas);
+        cabecera.escribirVarint(participantes.size());
+        for (Corredor corredor : participantes) {
+            PowerUp powerUp = corredor.getPowerUp();
+            cabecera.escribirZigzag(corredor.getId());
+            cabecera.escribirTexto(corredor.getNombre());
+            cabecera.escribirZigzag(corredor.getVelocidadBase());
+            cabecera.escribirTexto(powerUp.getNombre());
+            cabecera.escribirZigzag(powerUp.getBonus());
+            cabecera.escribirZigzag(powerUp.getDuracion());
+        }
+
+        siguiente.inicioCarrera(participantes, meta);
+    }
+
+    @Override
+    public void inicioTurno(int turno) {
+        cantidadTurnos++;
+        inicioBanderas = turnos.reservar((participantes.size() + 7) / 8);
+        siguiente.inicioTurno(turno);
+    }
+
+    @Override
+    public void powerUpActivado(Corredor corredor) {
+        int indice = indiceDe(corredor);
+        turnos.marcarBit(inicioBanderas, indice);
+        siguiente.powerUpActivado(corredor);
+    }
+
+    @Override
+    public void avance(Corredor corredor, int avance) {
+        turnos.escribirZigzag(avance - corredor.getVelocidadBase());
+        siguiente.avance(corredor, avance);
+    }
+
+    @Override
+    public void llegada(Corredor corredor, int lugar, double tiempo) {
+        siguiente.llegada(corredor, lugar, tiempo);
+    }
+
+    @Override
+    public void finTurno(int turno) {
+        siguiente.finTurno(turno);
+    }
+
+    @Override
+    public void resultados(Corredor[] posiciones) {
+        cabecera.escribirVarint(cantidadTurnos);
+        for (Corredor corredor : posiciones) {
+            cabecera.escribirVarint(indiceDe(corredor));
+        }
+
+        largo.reiniciar();
+        largo.escribirVarint(cabecera.getLargo() + turnos.getLargo());
+        try {
+            largo.copiarA(salida);
+            cabecera.copiarA(salida);
+            turnos.copiarA(salida);
+        } catch (IOException e) {
+            System.out.println("Error al grabar la repeticion: " + e.getMessage());
+        }
+
+        siguiente.resultados(posiciones);
+    }
+
+    /**
+     * Escribe en el archivo las carreras grabadas que sigan en memoria
+     */
+    public void vaciar() throws IOException {
+        salida.flush();
+    }
+
+    /**
+     * Vacia y cierra la salida
+     */
+    public void cerrar() throws IOException {
+        salida.close();
+    }
+
+    /**
+     * Busca el indice de un participante
+     * Los eventos llegan en el orden de los participantes, asi que se busca desde el ultimo
+     */
+    private int indiceDe(Corredor corredor) {
+        int cantidad = participantes.size();
+        for (int i = 0; i < cantidad; i++) {
+            int indice = (cursor + i) % cantidad;
+            if (participantes.get(indice) == corredor) {
+                cursor = indice;
+                return indice;
+            }
+        }
+        throw new IllegalArgumentException("El corredor " + corredor.getNombre() + " no participa de la carrera");
+    }
+
+    /**
+     * Bytes que se reutilizan de una carrera a la siguiente
+     */
+    static class Bloque {
+        private byte[] datos = new byte[256];
+        private int largo;
+
+        void reiniciar() {
+            largo = 0;
+        }
+
+        int getLargo() {
+            return largo;
+        }
+
+        byte[] getDatos() {
+            return datos;
+        }
+
+        void escribirByte(int valor) {
+            asegurar(1);
+            datos[largo++] = (byte) valor;
+        }
+
+        void escribirFijo(long valor, int bytes) {
+            asegurar(bytes);
+            for (int i = bytes - 1; i >= 0; i--) {
+                datos[largo++] = (byte) (valor >>> (i * 8));
+            }
+        }
+
+        void escribirVarint(long valor) {
+            while ((valor & ~0x7FL) != 0) {
+                escribirByte((int) ((valor & 0x7F) | 0x80));
+                valor >>>= 7;
+            }
+            escribirByte((int) valor);
+        }
+
+        void escribirZigzag(long valor) {
+            escribirVarint((valor << 1) ^ (valor >> 63));
+        }
+
+        void escribirTexto(String texto) {
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            escribirVarint(bytes.length);
+            asegurar(bytes.length);
+            System.arraycopy(bytes, 0, datos, largo, bytes.length);
+            largo += bytes.length;
+        }
+
+        /**
+         * Reserva bytes en cero para completarlos despues
+         * @return Posicion del primer byte reservado
+         */
+        int reservar(int bytes) {
+            asegurar(bytes);
+            Arrays.fill(datos, largo, largo + bytes, (byte) 0);
+            int inicio = largo;
+            largo += bytes;
+            return inicio;
+        }
+
+        void marcarBit(int inicio, int bit) {
+            datos[inicio + (bit >>> 3)] |= (byte) (1 << (bit & 7));
+        }
+
+        void copiarA(OutputStream salida) throws IOException {
+            salida.write(datos, 0, largo);
+        }
+
+        private void asegurar(int bytes) {
+            if (largo + bytes > datos.length) {
+                datos = Arrays.copyOf(datos, Math.max(datos.length * 2, largo + bytes));
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Clase que cuenta duraciones en cubetas logaritmicas, al estilo de HdrHistogram
+ * Cada potencia de dos se divide en 32 cubetas iguales, asi cualquier valor se guarda
+ * con un error menor al 3% usando una cantidad fija de memoria. Registrar un valor no
+ * usa cerrojos, se puede hacer desde varios hilos a la vez.
+ */
+public class HistogramaLatencias {
+    private static final int BITS_SUBCUBETA = 5;
+    private static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+    private static final int CUBETAS = (64 - BITS_SUBCUBETA) * SUBCUBETAS;
+
+    private final String nombre;
+    private final AtomicLongArray cuentas;
+    private final LongAdder cantidad;
+    private final LongAdder suma;
+    private final LongAccumulator maximo;
+
+    /**
+     * Constructor del histograma vacio
+     */
+    public HistogramaLatencias(String nombre) {
+        this.nombre = nombre;
+        this.cuentas = new AtomicLongArray(CUBETAS);
+        this.cantidad = new LongAdder();
+        this.suma = new LongAdder();
+        this.maximo = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Registra una duracion
+     * @param nanos Duracion en nanosegundos (las negativas cuentan como 0)
+     */
+    public void registrar(long nanos) {
+        long valor = Math.max(nanos, 0);
+        cuentas.incrementAndGet(cubeta(valor));
+        cantidad.increment();
+        suma.add(valor);
+        maximo.accumulate(valor);
+    }
+
+    /**
+     * Obtiene el valor por debajo del cual queda el porcentaje indicado de los registros
+     * Devuelve el mayor valor de la cubeta, asi nunca informa menos de lo medido.
+     * @param percentil Entre 0 y 100
+     * @return Nanosegundos, o 0 si no hay registros
+     */
+    public long getPercentil(double percentil) {
+        long total = cantidad.sum();
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(total * percentil / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += cuentas.get(i);
+            if (acumulado >= objetivo) {
+                return Math.min(maximoDeCubeta(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public long getCantidad() {
+        return cantidad.sum();
+    }
+
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Obtiene la duracion promedio en nanosegundos
+     */
+    public double getPromedio() {
+        long total = cantidad.sum();
+        return total == 0 ? 0.0 : (double) suma.sum() / total;
+    }
+
+    /**
+     * Calcula la cubeta de un valor: los menores a 32 tienen una propia y el resto
+     * se ubica por su potencia de dos y sus 5 bits siguientes
+     */
+    static int cubeta(long valor) {
+        if (valor < SUBCUBETAS) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int desplazamiento = exponente - BITS_SUBCUBETA;
+        return (desplazamiento + 1) * SUBCUBETAS + (int) ((valor >>> desplazamiento) - SUBCUBETAS);
+    }
+
+    /**
+     * Obtiene el mayor valor que cae en una cubeta
+     */
+    static long maximoDeCubeta(int cubeta) {
+        if (cubeta < SUBCUBETAS) {
+            return cubeta;
+        }
+        int desplazamiento = cubeta / SUBCUBETAS - 1;
+        long mantisa = cubeta % SUBCUBETAS + SUBCUBETAS;
+        return ((mantisa + 1) << desplazamiento) - 1;
+    }
+}
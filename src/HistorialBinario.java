@@ -0,0 +1,242 @@
+import java.io.*;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * Clase que lee y escribe el historial en formato binario de ancho fijo
+ *
+ * Formato (big endian):
+ *   int   magia "GKH1"
+ *   short version del formato
+ *   byte  corredores por carrera (P)
+ *   byte  reservado
+ *   long  bytes de historial.txt que cubre este archivo
+ *   long  cantidad de carreras
+ *   int   cantidad de nombres, y por cada uno: short largo + bytes UTF-8
+ *   carreras: P ids (short sin signo) seguidos de P posiciones (byte sin signo)
+ */
+public class HistorialBinario {
+    private static final int MAGIA = 0x474B4831; // "GKH1"
+    private static final short VERSION = 1;
+    private static final int POSICION_MAXIMA = 0xFF;
+    private static final int LARGO_MAXIMO_NOMBRE = 0xFFFF;
+
+    // Maximo de bytes por ventana mapeada (MappedByteBuffer usa indices int)
+    private static final long MAXIMO_VENTANA = Integer.MAX_VALUE;
+
+    private HistorialBinario() {
+    }
+
+    /**
+     * Convierte el historial CSV a formato binario
+     * @return Cantidad de carreras convertidas
+     */
+    public static long convertirDesdeCsv(String archivoCsv, String archivoBinario,
+                                         int corredoresPorCarrera) throws IOException {
+        // Primera pasada: asignar un id a cada nombre en orden de aparicion
+        IndiceNombres ids = new IndiceNombres();
+        ArrayList<String> nombres = new ArrayList<>();
+        long carreras = 0;
+        long bytesCubiertos = new File(archivoCsv).length();
+
+        try (FileInputStream entrada = new FileInputStream(archivoCsv)) {
+            LectorCsv lector = new LectorCsv(entrada.getChannel(), archivoCsv);
+            while (lector.siguienteLinea()) {
+                String motivo = motivoCarreraInvalida(lector, corredoresPorCarrera);
+                if (motivo != null) {
+                    lector.reportarLineaInvalida(motivo);
+                    continue;
+                }
+                for (int i = 0; i < corredoresPorCarrera; i++) {
+                    if (ids.agregar(lector.getDatos(), lector.getInicio(i), lector.getFin(i), nombres.size())) {
+                        nombres.add(lector.texto(i));
+                    }
+                }
+                carreras++;
+            }
+            lector.mostrarResumen();
+        }
+
+        if (nombres.size() > 0xFFFF) {
+            throw new IOException("Demasiados corredores distintos para el formato binario: " + nombres.size());
+        }
+
+        // Segunda pasada: escribir encabezado y carreras
+        try (FileInputStream entrada = new FileInputStream(archivoCsv);
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(new FileOutputStream(archivoBinario)))) {
+            out.writeInt(MAGIA);
+            out.writeShort(VERSION);
+            out.writeByte(corredoresPorCarrera);
+            out.writeByte(0);
+            out.writeLong(bytesCubiertos);
+            out.writeLong(carreras);
+            out.writeInt(nombres.size());
+            for (String nombre : nombres) {
+                byte[] bytes = nombre.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+
+            LectorCsv lector = new LectorCsv(entrada.getChannel(), archivoCsv);
+            long escritas = 0;
+            while (escritas < carreras && lector.siguienteLinea()) {
+                if (motivoCarreraInvalida(lector, corredoresPorCarrera) != null) {
+                    continue;
+                }
+                for (int i = 0; i < corredoresPorCarrera; i++) {
+                    out.writeShort(ids.buscar(lector.getDatos(), lector.getInicio(i), lector.getFin(i)));
+                }
+                for (int i = 0; i < corredoresPorCarrera; i++) {
+                    out.writeByte((int) lector.entero(corredoresPorCarrera + i));
+                }
+                escritas++;
+            }
+        }
+
+        return carreras;
+    }
+
+    /**
+     * Verifica que la linea actual tenga los nombres y posiciones de una carrera
+     * y que se pueda guardar en el formato binario. El historial de texto usa la misma
+     * regla, asi una carrera cuenta igual se lea del texto o del binario.
+     * Los campos de mas al final de la linea se ignoran.
+     * @return null si la carrera es valida, o el motivo por el que no lo es
+     */
+    static String motivoCarreraInvalida(LectorCsv lector, int corredoresPorCarrera) {
+        if (lector.getCantidadCampos() < corredoresPorCarrera * 2) {
+            return "se esperaban " + (corredoresPorCarrera * 2) + " campos";
+        }
+        for (int i = 0; i < corredoresPorCarrera; i++) {
+            // El largo del nombre se guarda como short sin signo
+            if (lector.getFin(i) - lector.getInicio(i) > LARGO_MAXIMO_NOMBRE) {
+                return "nombre demasiado largo";
+            }
+            long posicion = lector.entero(corredoresPorCarrera + i);
+            if (posicion < 0 || posicion > POSICION_MAXIMA) {
+                return "posicion invalida";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Recorre el historial binario entregando cada carrera al visitante
+     * El archivo se lee mapeado en memoria, sin convertir texto a numeros
+     * @return Bytes de historial.txt cubiertos por el archivo binario
+     */
+    public static long recorrer(String archivoBinario, RegistroCorredores corredores,
+                                VisitanteHistorial visitante) throws IOException {
+        Encabezado encabezado = leerEncabezado(archivoBinario, corredores);
+        recorrer(archivoBinario, encabezado, 0, encabezado.getCarreras(), visitante);
+        return encabezado.getBytesCubiertos();
+    }
+
+    /**
+     * Lee el encabezado y resuelve cada nombre una sola vez a su id en el registro
+     */
+    public static Encabezado leerEncabezado(String archivoBinario, RegistroCorredores corredores) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(archivoBinario, "r")) {
+            if (raf.readInt() != MAGIA) {
+                throw new IOException("El archivo " + archivoBinario + " no es un historial binario");
+            }
+            short version = raf.readShort();
+            if (version != VERSION) {
+                throw new IOException("Version de historial binario no soportada: " + version);
+            }
+            int porCarrera = raf.readUnsignedByte();
+            raf.readByte();
+            long bytesCubiertos = raf.readLong();
+            long carreras = raf.readLong();
+            int cantidadNombres = raf.readInt();
+
+            int[] idsRegistro = new int[cantidadNombres];
+            for (int i = 0; i < cantidadNombres; i++) {
+                byte[] bytes = new byte[raf.readUnsignedShort()];
+                raf.readFully(bytes);
+                Corredor corredor = corredores.buscarPorNombre(new String(bytes, StandardCharsets.UTF_8));
+                idsRegistro[i] = corredor != null ? corredor.getId() : -1;
+            }
+
+            // Solo cuentan las carreras que estan completas en el archivo
+            long inicio = raf.getFilePointer();
+            carreras = Math.min(carreras, (raf.length() - inicio) / (porCarrera * 3L));
+            return new Encabezado(porCarrera, bytesCubiertos, carreras, idsRegistro, inicio);
+        }
+    }
+
+    /**
+     * Recorre solo las carreras con numero en [desde, hasta)
+     * Cada tramo se puede recorrer en un hilo distinto
+     */
+    public static void recorrer(String archivoBinario, Encabezado encabezado, long desde, long hasta,
+                                VisitanteHistorial visitante) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(archivoBinario, "r");
+             FileChannel canal = raf.getChannel()) {
+            int porCarrera = encabezado.porCarrera;
+            int[] idsRegistro = encabezado.idsRegistro;
+            int[] ids = new int[porCarrera];
+            int[] posiciones = new int[porCarrera];
+
+            // Leer las carreras por ventanas mapeadas
+            int tamanoRegistro = porCarrera * 3;
+            long inicio = encabezado.inicioCarreras + desde * tamanoRegistro;
+            long restantes = Math.min(hasta, encabezado.carreras) - desde;
+            long registrosPorVentana = MAXIMO_VENTANA / tamanoRegistro;
+
+            while (restantes > 0) {
+                long enVentana = Math.min(restantes, registrosPorVentana);
+                MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, inicio, enVentana * tamanoRegistro);
+                buffer.order(ByteOrder.BIG_ENDIAN);
+
+                for (long r = 0; r < enVentana; r++) {
+                    int base = buffer.position();
+                    for (int i = 0; i < porCarrera; i++) {
+                        ids[i] = idsRegistro[buffer.getShort(base + i * 2) & 0xFFFF];
+                        posiciones[i] = buffer.get(base + porCarrera * 2 + i) & 0xFF;
+                    }
+                    visitante.carrera(ids, posiciones);
+                    buffer.position(base + tamanoRegistro);
+                }
+
+                inicio += enVentana * tamanoRegistro;
+                restantes -= enVentana;
+            }
+        }
+    }
+
+    /**
+     * Datos del encabezado de un historial binario
+     */
+    public static class Encabezado {
+        private final int porCarrera;
+        private final long bytesCubiertos;
+        private final long carreras;
+        private final int[] idsRegistro;    // id en el archivo -> id en el registro
+        private final long inicioCarreras;
+
+        Encabezado(int porCarrera, long bytesCubiertos, long carreras, int[] idsRegistro, long inicioCarreras) {
+            this.porCarrera = porCarrera;
+            this.bytesCubiertos = bytesCubiertos;
+            this.carreras = carreras;
+            this.idsRegistro = idsRegistro;
+            this.inicioCarreras = inicioCarreras;
+        }
+
+        public int getPorCarrera() {
+            return porCarrera;
+        }
+
+        public long getBytesCubiertos() {
+            return bytesCubiertos;
+        }
+
+        public long getCarreras() {
+            return carreras;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Clase que asocia nombres a valores enteros buscando directamente por sus bytes UTF-8
+ * Permite resolver un nombre leido de un archivo sin crear un String.
+ * Usa una tabla hash de direccionamiento abierto.
+ */
+public class IndiceNombres {
+    private int[] tabla;        // posicion -> entrada + 1, 0 si esta vacia
+    private byte[][] nombres;   // por entrada
+    private int[] hashes;
+    private int[] valores;
+    private int cantidad;
+
+    /**
+     * Constructor del indice vacio
+     */
+    public IndiceNombres() {
+        this.tabla = new int[16];
+        this.nombres = new byte[8][];
+        this.hashes = new int[8];
+        this.valores = new int[8];
+        this.cantidad = 0;
+    }
+
+    /**
+     * Agrega un nombre con su valor
+     * @return false si el nombre ya estaba (no se modifica)
+     */
+    public boolean agregar(String nombre, int valor) {
+        byte[] bytes = nombre.getBytes(StandardCharsets.UTF_8);
+        return agregar(bytes, 0, bytes.length, valor);
+    }
+
+    /**
+     * Agrega el nombre formado por los bytes datos[desde, hasta) con su valor
+     * @return false si el nombre ya estaba (no se modifica)
+     */
+    public boolean agregar(byte[] datos, int desde, int hasta, int valor) {
+        int hash = hash(datos, desde, hasta);
+        if (buscarPosicion(datos, desde, hasta, hash) >= 0) {
+            return false;
+        }
+
+        if (cantidad == nombres.length) {
+            nombres = Arrays.copyOf(nombres, cantidad * 2);
+            hashes = Arrays.copyOf(hashes, cantidad * 2);
+            valores = Arrays.copyOf(valores, cantidad * 2);
+        }
+        nombres[cantidad] = Arrays.copyOfRange(datos, desde, hasta);
+        hashes[cantidad] = hash;
+        valores[cantidad] = valor;
+        cantidad++;
+
+        // Mantener la tabla a lo sumo a la mitad de su capacidad
+        if (cantidad * 2 > tabla.length) {
+            tabla = new int[tabla.length * 2];
+            for (int entrada = 0; entrada < cantidad; entrada++) {
+                insertar(entrada);
+            }
+        } else {
+            insertar(cantidad - 1);
+        }
+        return true;
+    }
+
+    /**
+     * Busca el valor de un nombre
+     * @return El valor, o -1 si el nombre no esta
+     */
+    public int buscar(String nombre) {
+        byte[] bytes = nombre.getBytes(StandardCharsets.UTF_8);
+        return buscar(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Busca el valor del nombre formado por los bytes datos[desde, hasta)
+     * @return El valor, o -1 si el nombre no esta
+     */
+    public int buscar(byte[] datos, int desde, int hasta) {
+        int entrada = buscarPosicion(datos, desde, hasta, hash(datos, desde, hasta));
+        return entrada >= 0 ? valores[entrada] : -1;
+    }
+
+    /**
+     * Obtiene la cantidad de nombres
+     */
+    public int tamano() {
+        return cantidad;
+    }
+
+    private int buscarPosicion(byte[] datos, int desde, int hasta, int hash) {
+        int mascara = tabla.length - 1;
+        for (int i = hash & mascara; tabla[i] != 0; i = (i + 1) & mascara) {
+            int entrada = tabla[i] - 1;
+            if (hashes[entrada] == hash
+                    && Arrays.equals(nombres[entrada], 0, nombres[entrada].length, datos, desde, hasta)) {
+                return entrada;
+            }
+        }
+        return -1;
+    }
+
+    private void insertar(int entrada) {
+        int mascara = tabla.length - 1;
+        int i = hashes[entrada] & mascara;
+        while (tabla[i] != 0) {
+            i = (i + 1) & mascara;
+        }
+        tabla[i] = entrada + 1;
+    }
+
+    // FNV-1a con una mezcla final para repartir mejor los bits bajos
+    private static int hash(byte[] datos, int desde, int hasta) {
+        int h = 0x811C9DC5;
+        for (int i = desde; i < hasta; i++) {
+            h = (h ^ datos[i]) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,137 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Clase que guarda y carga una instantanea de las estadisticas de todos los corredores
+ * La instantanea indica hasta que byte de historial.txt ya esta sumado, asi al iniciar
+ * solo hace falta recorrer las carreras que se escribieron despues.
+ *
+ * Formato (big endian):
+ *   int   magia "GKS1"
+ *   short version del formato
+ *   long  bytes de historial.txt que cubre la instantanea
+ *   long  CRC32 de los ultimos bytes cubiertos (detecta un historial reemplazado)
+ *   int   cantidad de corredores, y por cada uno:
+ *         short largo + nombre UTF-8, long carreras, long victorias, long suma de posiciones
+ */
+public class InstantaneaEstadisticas {
+    private static final int MAGIA = 0x474B5331; // "GKS1"
+    private static final short VERSION = 1;
+
+    // Bytes del final de la parte cubierta que se usan para la huella
+    private static final int BYTES_HUELLA = 4096;
+
+    private InstantaneaEstadisticas() {
+    }
+
+    /**
+     * Guarda las estadisticas actuales de los corredores
+     * Se escribe en un archivo temporal que luego reemplaza al anterior, asi un corte
+     * a mitad de la escritura nunca deja una instantanea incompleta
+     * @param bytesHistorial Bytes de historial.txt incluidos en las estadisticas
+     */
+    public static void guardar(File archivo, File historial, long bytesHistorial,
+                               RegistroCorredores corredores) throws IOException {
+        EstadisticasCorredor[] estadisticas = corredores.getEstadisticas().obtenerTodas(corredores.tamano());
+        File temporal = new File(archivo.getPath() + ".tmp");
+
+        try (FileOutputStream salida = new FileOutputStream(temporal);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(salida))) {
+            out.writeInt(MAGIA);
+            out.writeShort(VERSION);
+            out.writeLong(bytesHistorial);
+            out.writeLong(huella(historial, bytesHistorial));
+            out.writeInt(corredores.tamano());
+            for (Corredor corredor : corredores.getCorredores()) {
+                byte[] nombre = corredor.getNombre().getBytes(StandardCharsets.UTF_8);
+                EstadisticasCorredor actuales = estadisticas[corredor.getId()];
+                out.writeShort(nombre.length);
+                out.write(nombre);
+                out.writeLong(actuales.getCarrerasJugadas());
+                out.writeLong(actuales.getVictorias());
+                out.writeLong(actuales.getSumaPosiciones());
+            }
+            out.flush();
+            salida.getFD().sync();
+        }
+
+        Files.move(temporal.toPath(), archivo.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Carga la instantanea y suma sus estadisticas a los corredores
+     * Solo se usa si el historial sigue siendo el mismo que cuando se guardo y si
+     * incluye a todos los corredores actuales; si no, no se suma nada.
+     * @return Bytes de historial.txt que ya estan sumados, o -1 si no se pudo usar
+     */
+    public static long cargar(File archivo, File historial, RegistroCorredores corredores) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(archivo)))) {
+            if (in.readInt() != MAGIA || in.readShort() != VERSION) {
+                return -1;
+            }
+            long bytesHistorial = in.readLong();
+            long huellaGuardada = in.readLong();
+            if (historial.length() < bytesHistorial || huella(historial, bytesHistorial) != huellaGuardada) {
+                return -1;
+            }
+
+            int cantidad = in.readInt();
+            HashMap<String, EstadisticasCorredor> porNombre = new HashMap<>();
+            for (int i = 0; i < cantidad; i++) {
+                byte[] nombre = new byte[in.readUnsignedShort()];
+                in.readFully(nombre);
+                porNombre.put(new String(nombre, StandardCharsets.UTF_8),
+                        new EstadisticasCorredor(in.readLong(), in.readLong(), in.readLong()));
+            }
+
+            // Un corredor nuevo podria tener carreras en la parte ya cubierta del historial
+            for (Corredor corredor : corredores.getCorredores()) {
+                if (!porNombre.containsKey(corredor.getNombre())) {
+                    return -1;
+                }
+            }
+
+            EstadisticasConcurrentes estadisticas = corredores.getEstadisticas();
+            for (Corredor corredor : corredores.getCorredores()) {
+                EstadisticasCorredor guardadas = porNombre.get(corredor.getNombre());
+                if (guardadas.getCarrerasJugadas() > 0) {
+                    estadisticas.agregar(corredor.getId(), guardadas);
+                }
+            }
+            return bytesHistorial;
+        } catch (EOFException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Calcula el CRC32 de los ultimos bytes de la parte cubierta del historial
+     */
+    private static long huella(File historial, long bytesHistorial) throws IOException {
+        CRC32 crc = new CRC32();
+        if (bytesHistorial == 0) {
+            return crc.getValue();
+        }
+
+        try (FileInputStream entrada = new FileInputStream(historial)) {
+            FileChannel canal = entrada.getChannel();
+            long inicio = Math.max(0, bytesHistorial - BYTES_HUELLA);
+            ByteBuffer buffer = ByteBuffer.allocate((int) (bytesHistorial - inicio));
+            while (buffer.hasRemaining()) {
+                if (canal.read(buffer, inicio + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            buffer.flip();
+            crc.update(buffer);
+        }
+        return crc.getValue();
+    }
+}
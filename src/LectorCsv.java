@@ -0,0 +1,287 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Clase que lee un archivo CSV linea por linea sin crear objetos por linea
+ * Lee bytes por bloques en un buffer que se reutiliza y separa los campos guardando
+ * solo donde empieza y termina cada uno. Los numeros se convierten directamente
+ * desde los bytes. La memoria usada depende del largo de la linea mas larga,
+ * no del tamano del archivo.
+ *
+ * Las lineas invalidas se informan con su numero en vez de lanzar una excepcion.
+ */
+public class LectorCsv {
+    /**
+     * Valor que devuelve entero() cuando el campo no es un numero valido
+     */
+    public static final long NO_ENTERO = Long.MIN_VALUE;
+
+    private static final int TAMANO_BUFFER = 64 * 1024;
+    private static final int MAXIMO_REPORTES = 10;
+
+    private ReadableByteChannel canal;
+    private String nombreArchivo;
+    private byte[] datos;
+    private ByteBuffer buffer;      // envuelve a datos para leer del canal
+    private int limite;             // bytes validos en datos
+    private int posicion;           // inicio de la siguiente linea en datos
+    private long desplazamiento;    // posicion en el archivo de datos[0]
+    private boolean finArchivo;
+
+    // Campos de la linea actual
+    private int[] inicios;
+    private int[] fines;
+    private int cantidadCampos;
+    private long numeroLinea;
+    private long inicioLinea;       // posicion en el archivo de la linea actual
+    private long lineasInvalidas;
+    private boolean desdeElPrincipio;   // si no, los numeros de linea no son del archivo
+
+    /**
+     * Constructor del lector desde el principio del canal
+     * @param nombreArchivo Nombre que se muestra al informar lineas invalidas
+     */
+    public LectorCsv(ReadableByteChannel canal, String nombreArchivo) {
+        this(canal, nombreArchivo, 0);
+    }
+
+    /**
+     * Constructor del lector cuando el canal ya esta ubicado en otra posicion
+     * @param posicionInicial Posicion del canal en el archivo (solo para informar)
+     */
+    public LectorCsv(ReadableByteChannel canal, String nombreArchivo, long posicionInicial) {
+        this.canal = canal;
+        this.nombreArchivo = nombreArchivo;
+        this.datos = new byte[TAMANO_BUFFER];
+        this.buffer = ByteBuffer.wrap(datos);
+        this.desplazamiento = posicionInicial;
+        this.desdeElPrincipio = posicionInicial == 0;
+        this.inicios = new int[8];
+        this.fines = new int[8];
+    }
+
+    /**
+     * Avanza a la siguiente linea no vacia
+     * @return false si no quedan lineas
+     */
+    public boolean siguienteLinea() throws IOException {
+        int revisado = posicion;
+        while (true) {
+            int fin = -1;
+            for (int i = revisado; i < limite; i++) {
+                if (datos[i] == '\n') {
+                    fin = i;
+                    break;
+                }
+            }
+
+            if (fin < 0) {
+                if (!finArchivo) {
+                    revisado = limite - posicion;
+                    rellenar();
+                    revisado += posicion;
+                    continue;
+                }
+                if (posicion >= limite) {
+                    return false;
+                }
+                fin = limite; // ultima linea sin salto de linea
+            }
+
+            int desde = posicion;
+            posicion = Math.min(fin + 1, limite);
+            revisado = posicion;
+            numeroLinea++;
+            if (separarCampos(desde, fin)) {
+                inicioLinea = desplazamiento + desde;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de campos de la linea actual
+     */
+    public int getCantidadCampos() {
+        return cantidadCampos;
+    }
+
+    /**
+     * Convierte un campo a entero sin crear objetos
+     * @return El valor, o NO_ENTERO si el campo no es un entero de 32 bits
+     */
+    public long entero(int campo) {
+        int i = inicios[campo];
+        int fin = fines[campo];
+        if (i == fin) {
+            return NO_ENTERO;
+        }
+
+        boolean negativo = datos[i] == '-';
+        if (negativo || datos[i] == '+') {
+            i++;
+            if (i == fin) {
+                return NO_ENTERO;
+            }
+        }
+
+        long valor = 0;
+        for (; i < fin; i++) {
+            int digito = datos[i] - '0';
+            if (digito < 0 || digito > 9) {
+                return NO_ENTERO;
+            }
+            valor = valor * 10 + digito;
+            if (valor > (long) Integer.MAX_VALUE + 1) {
+                return NO_ENTERO;
+            }
+        }
+
+        valor = negativo ? -valor : valor;
+        return valor > Integer.MAX_VALUE ? NO_ENTERO : valor;
+    }
+
+    /**
+     * Obtiene un campo como texto (crea un String)
+     */
+    public String texto(int campo) {
+        return new String(datos, inicios[campo], fines[campo] - inicios[campo], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Obtiene el buffer donde estan los bytes de la linea actual
+     * Solo es valido hasta la siguiente llamada a siguienteLinea
+     */
+    public byte[] getDatos() {
+        return datos;
+    }
+
+    /**
+     * Obtiene donde empieza un campo dentro de getDatos()
+     */
+    public int getInicio(int campo) {
+        return inicios[campo];
+    }
+
+    /**
+     * Obtiene donde termina (exclusivo) un campo dentro de getDatos()
+     */
+    public int getFin(int campo) {
+        return fines[campo];
+    }
+
+    /**
+     * Obtiene el numero de la linea actual, desde 1
+     * Si la lectura no empezo al principio del archivo, se cuenta desde donde empezo
+     */
+    public long getNumeroLinea() {
+        return numeroLinea;
+    }
+
+    /**
+     * Obtiene la posicion en el archivo donde empieza la linea actual
+     */
+    public long getPosicionLinea() {
+        return inicioLinea;
+    }
+
+    /**
+     * Informa que la linea actual es invalida y se ignora
+     * Solo se muestran las primeras; el resto se cuenta para el resumen
+     */
+    public void reportarLineaInvalida(String motivo) {
+        lineasInvalidas++;
+        if (lineasInvalidas > MAXIMO_REPORTES) {
+            return;
+        }
+        if (desdeElPrincipio) {
+            System.out.println("Linea " + numeroLinea + " de " + nombreArchivo + " ignorada (byte " +
+                    inicioLinea + "): " + motivo);
+        } else {
+            System.out.println("Linea en el byte " + inicioLinea + " de " + nombreArchivo + " ignorada: " + motivo);
+        }
+    }
+
+    /**
+     * Muestra cuantas lineas invalidas no se llegaron a mostrar
+     */
+    public void mostrarResumen() {
+        if (lineasInvalidas > MAXIMO_REPORTES) {
+            System.out.println("... y " + (lineasInvalidas - MAXIMO_REPORTES) + " lineas invalidas mas en " +
+                    nombreArchivo + " (" + lineasInvalidas + " en total)");
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de lineas informadas como invalidas
+     */
+    public long getLineasInvalidas() {
+        return lineasInvalidas;
+    }
+
+    /**
+     * Separa la linea datos[desde, hasta) en campos sin espacios alrededor
+     * @return false si la linea esta vacia
+     */
+    private boolean separarCampos(int desde, int hasta) {
+        if (hasta > desde && datos[hasta - 1] == '\r') {
+            hasta--;
+        }
+        cantidadCampos = 0;
+        int inicio = desde;
+        for (int i = desde; i <= hasta; i++) {
+            if (i == hasta || datos[i] == ',') {
+                agregarCampo(inicio, i);
+                inicio = i + 1;
+            }
+        }
+        return !(cantidadCampos == 1 && inicios[0] == fines[0]);
+    }
+
+    private void agregarCampo(int inicio, int fin) {
+        while (inicio < fin && (datos[inicio] == ' ' || datos[inicio] == '\t')) {
+            inicio++;
+        }
+        while (fin > inicio && (datos[fin - 1] == ' ' || datos[fin - 1] == '\t')) {
+            fin--;
+        }
+        if (cantidadCampos == inicios.length) {
+            inicios = Arrays.copyOf(inicios, cantidadCampos * 2);
+            fines = Arrays.copyOf(fines, cantidadCampos * 2);
+        }
+        inicios[cantidadCampos] = inicio;
+        fines[cantidadCampos] = fin;
+        cantidadCampos++;
+    }
+
+    /**
+     * Mueve la linea incompleta al principio del buffer y lee mas bytes
+     * El buffer solo crece si una sola linea no entra en el
+     */
+    private void rellenar() throws IOException {
+        int pendientes = limite - posicion;
+        if (posicion == 0 && limite == datos.length) {
+            datos = Arrays.copyOf(datos, datos.length * 2);
+            buffer = ByteBuffer.wrap(datos);
+        } else {
+            System.arraycopy(datos, posicion, datos, 0, pendientes);
+            desplazamiento += posicion;
+        }
+        posicion = 0;
+        limite = pendientes;
+
+        buffer.limit(datos.length).position(limite);
+        int leidos = canal.read(buffer);
+        while (leidos == 0) {
+            leidos = canal.read(buffer);
+        }
+        if (leidos < 0) {
+            finArchivo = true;
+        } else {
+            limite += leidos;
+        }
+    }
+}
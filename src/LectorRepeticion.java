@@ -0,0 +1,339 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Clase que lee las carreras grabadas por GrabadorRepeticion
+ * Permite saltar carreras sin decodificarlas, reproducir una carrera enviando sus
+ * eventos a un escucha (por ejemplo la consola), obtener las distancias en cualquier
+ * turno y verificar que la carrera grabada se repite igual a partir de su semilla.
+ */
+public class LectorRepeticion {
+    private DataInputStream entrada;
+    private byte[] cuerpo;
+    private int largo;
+    private int posicion;
+    private long numero;
+
+    // Datos de la carrera actual
+    private long semilla;
+    private int llegadasRequeridas;
+    private ArrayList<DefinicionCorredor> participantes;
+    private int cantidadTurnos;
+    private int[] orden;
+    private int inicioTurnos;
+
+    /**
+     * Constructor del lector
+     * @throws IOException Si la entrada no es un archivo de repeticiones
+     */
+    public LectorRepeticion(InputStream entrada) throws IOException {
+        this.entrada = new DataInputStream(new BufferedInputStream(entrada));
+        this.cuerpo = new byte[256];
+        this.numero = 0;
+        this.participantes = new ArrayList<>();
+
+        if (this.entrada.readInt() != GrabadorRepeticion.MAGIA) {
+            throw new IOException("No es un archivo de repeticiones");
+        }
+        int version = (int) leerVarint(this.entrada);
+        if (version != GrabadorRepeticion.VERSION) {
+            throw new IOException("Version de repeticiones no soportada: " + version);
+        }
+    }
+
+    /**
+     * Avanza a la siguiente carrera grabada
+     * @return false si no quedan carreras
+     */
+    public boolean siguiente() throws IOException {
+        if (!leerRegistro()) {
+            return false;
+        }
+        numero++;
+
+        posicion = 0;
+        semilla = 0;
+        for (int i = 0; i < 8; i++) {
+            semilla = (semilla << 8) | (cuerpo[posicion++] & 0xFF);
+        }
+        llegadasRequeridas = (int) varint();
+        int cantidad = (int) varint();
+        participantes.clear();
+        for (int i = 0; i < cantidad; i++) {
+            int id = (int) zigzag();
+            String nombre = texto();
+            int velocidadBase = (int) zigzag();
+            PowerUp powerUp = new PowerUp(texto(), (int) zigzag(), (int) zigzag());
+            participantes.add(new DefinicionCorredor(id, nombre, velocidadBase, powerUp));
+        }
+
+        cantidadTurnos = (int) varint();
+        orden = new int[cantidad];
+        for (int lugar = 0; lugar < cantidad; lugar++) {
+            orden[lugar] = (int) varint();
+        }
+        inicioTurnos = posicion;
+        return true;
+    }
+
+    /**
+     * Saltea carreras sin decodificarlas
+     * @return Cantidad de carreras salteadas (menos si se termino el archivo)
+     */
+    public long saltar(long carreras) throws IOException {
+        long salteadas = 0;
+        while (salteadas < carreras) {
+            long bytes;
+            try {
+                bytes = leerVarint(entrada);
+            } catch (EOFException e) {
+                break;
+            }
+            entrada.skipNBytes(bytes);
+            salteadas++;
+        }
+        numero += salteadas;
+        return salteadas;
+    }
+
+    /**
+     * Calcula las distancias de los participantes al terminar un turno
+     * @param turno Turno hasta el que se avanza (0 es la salida)
+     */
+    public int[] distanciasEnTurno(int turno) {
+        int cantidad = participantes.size();
+        int[] distancias = new int[cantidad];
+        posicion = inicioTurnos;
+        int bytesBanderas = (cantidad + 7) / 8;
+        for (int t = 1; t <= Math.min(turno, cantidadTurnos); t++) {
+            posicion += bytesBanderas;
+            for (int i = 0; i < cantidad; i++) {
+                if (distancias[i] < Carrera.META) {
+                    distancias[i] += participantes.get(i).getVelocidadBase() + (int) zigzag();
+                }
+            }
+        }
+        return distancias;
+    }
+
+    /**
+     * Reproduce la carrera actual enviando sus eventos grabados a un escucha
+     * Los corredores se crean con las definiciones grabadas y avanzan exactamente
+     * lo que avanzaron en la carrera original.
+     * @return Los corredores en el orden final grabado
+     */
+    public Corredor[] reproducir(EscuchaCarrera escucha) {
+        int cantidad = participantes.size();
+        ArrayList<Corredor> corredores = new ArrayList<>();
+        for (DefinicionCorredor definicion : participantes) {
+            corredores.add(new Corredor(definicion));
+        }
+        int[] turnoLlegada = new int[cantidad];
+        double[] tiempos = new double[cantidad];
+        AvanceFijo avanceFijo = new AvanceFijo();
+
+        escucha.configuracionCarrera(semilla, llegadasRequeridas);
+        escucha.inicioCarrera(corredores, Carrera.META);
+
+        posicion = inicioTurnos;
+        int bytesBanderas = (cantidad + 7) / 8;
+        for (int turno = 1; turno <= cantidadTurnos; turno++) {
+            escucha.inicioTurno(turno);
+            int banderas = posicion;
+            posicion += bytesBanderas;
+
+            for (int i = 0; i < cantidad; i++) {
+                Corredor corredor = corredores.get(i);
+                int anterior = corredor.getPosicionActual();
+                if (anterior >= Carrera.META) {
+                    continue;
+                }
+
+                if ((cuerpo[banderas + (i >>> 3)] & (1 << (i & 7))) != 0) {
+                    corredor.activarPowerUp();
+                    escucha.powerUpActivado(corredor);
+                }
+
+                // Elegir el factor aleatorio que produce el avance grabado
+                int avance = corredor.getVelocidadBase() + (int) zigzag();
+                avanceFijo.factor = avance - corredor.getVelocidadBase() -
+                        (corredor.tienePowerUpActivo() ? corredor.getPowerUp().getBonus() : 0);
+                corredor.avanzar(avanceFijo);
+                escucha.avance(corredor, avance);
+
+                if (corredor.getPosicionActual() >= Carrera.META) {
+                    turnoLlegada[i] = turno;
+                    tiempos[i] = (turno - 1) + (double) (Carrera.META - anterior) / avance;
+                }
+            }
+
+            if (llegadasRequeridas > 0) {
+                for (int lugar = 0; lugar < cantidad; lugar++) {
+                    if (turnoLlegada[orden[lugar]] == turno) {
+                        escucha.llegada(corredores.get(orden[lugar]), lugar + 1, tiempos[orden[lugar]]);
+                    }
+                }
+            }
+            escucha.finTurno(turno);
+        }
+
+        Corredor[] posiciones = new Corredor[cantidad];
+        for (int lugar = 0; lugar < cantidad; lugar++) {
+            posiciones[lugar] = corredores.get(orden[lugar]);
+        }
+        escucha.resultados(posiciones);
+        return posiciones;
+    }
+
+    /**
+     * Vuelve a simular la carrera actual con su semilla y la compara con la grabada
+     * Solo coincide si la fuente aleatoria de la carrera original se inicio con esa semilla.
+     * @return true si cada turno y el resultado son iguales a los grabados
+     */
+    public boolean verificar() {
+        ByteArrayOutputStream copia = new ByteArrayOutputStream(largo + 16);
+        try {
+            GrabadorRepeticion grabador = new GrabadorRepeticion(copia, false, EscuchaCarrera.SILENCIOSO);
+            Carrera carrera = new Carrera(grabador, new AleatorioDivisible(semilla));
+            carrera.setLlegadasRequeridas(llegadasRequeridas);
+            for (DefinicionCorredor definicion : participantes) {
+                carrera.agregarParticipante(new Corredor(definicion));
+            }
+            carrera.simular();
+        } catch (IOException e) {
+            return false;
+        }
+
+        // La copia es un solo registro: su largo (varint) y luego el cuerpo
+        byte[] repetida = copia.toByteArray();
+        long largoRepetido = 0;
+        int inicio = 0;
+        for (int desplazamiento = 0; inicio < repetida.length && desplazamiento < 64; desplazamiento += 7) {
+            byte b = repetida[inicio++];
+            largoRepetido |= (long) (b & 0x7F) << desplazamiento;
+            if (b >= 0) {
+                // El largo tiene que ser el grabado y el cuerpo tiene que empezar justo despues
+                return largoRepetido == largo && repetida.length - inicio == largo &&
+                        Arrays.equals(repetida, inicio, repetida.length, cuerpo, 0, largo);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Obtiene el numero de la carrera actual dentro del archivo, desde 1
+     */
+    public long getNumero() {
+        return numero;
+    }
+
+    public long getSemilla() {
+        return semilla;
+    }
+
+    public int getLlegadasRequeridas() {
+        return llegadasRequeridas;
+    }
+
+    public ArrayList<DefinicionCorredor> getParticipantes() {
+        return participantes;
+    }
+
+    public int getCantidadTurnos() {
+        return cantidadTurnos;
+    }
+
+    /**
+     * Obtiene los indices de los participantes del primero al ultimo lugar
+     */
+    public int[] getOrden() {
+        return orden;
+    }
+
+    /**
+     * Cierra la entrada
+     */
+    public void cerrar() throws IOException {
+        entrada.close();
+    }
+
+    /**
+     * Lee el siguiente registro completo en cuerpo
+     * @return false si no quedan registros
+     */
+    private boolean leerRegistro() throws IOException {
+        long bytes;
+        try {
+            bytes = leerVarint(entrada);
+        } catch (EOFException e) {
+            return false;
+        }
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IOException("Registro de repeticion invalido");
+        }
+        largo = (int) bytes;
+        if (largo > cuerpo.length) {
+            cuerpo = new byte[Math.max(largo, cuerpo.length * 2)];
+        }
+        entrada.readFully(cuerpo, 0, largo);
+        return true;
+    }
+
+    private long varint() {
+        long valor = 0;
+        for (int desplazamiento = 0; ; desplazamiento += 7) {
+            byte b = cuerpo[posicion++];
+            valor |= (long) (b & 0x7F) << desplazamiento;
+            if (b >= 0) {
+                return valor;
+            }
+        }
+    }
+
+    private long zigzag() {
+        long valor = varint();
+        return (valor >>> 1) ^ -(valor & 1);
+    }
+
+    private String texto() {
+        int bytes = (int) varint();
+        String texto = new String(cuerpo, posicion, bytes, StandardCharsets.UTF_8);
+        posicion += bytes;
+        return texto;
+    }
+
+    private static long leerVarint(DataInputStream entrada) throws IOException {
+        long valor = 0;
+        for (int desplazamiento = 0; ; desplazamiento += 7) {
+            byte b = entrada.readByte();
+            valor |= (long) (b & 0x7F) << desplazamiento;
+            if (b >= 0) {
+                return valor;
+            }
+        }
+    }
+
+    /**
+     * Fuente que devuelve siempre el factor elegido, para repetir un avance grabado
+     */
+    private static class AvanceFijo implements FuenteAleatoria {
+        private int factor;
+
+        @Override
+        public int enteroEntre(int minimo, int maximo) {
+            return factor;
+        }
+
+        @Override
+        public double siguienteDouble() {
+            return 0;
+        }
+
+        @Override
+        public long getSemilla() {
+            return 0;
+        }
+    }
+}
@@ -1,6 +1,44 @@
+import java.io.IOException;
+
 public class Main {
     public static void main(String[] args) {
+        Metricas.iniciarExportacion();
+
+        if (args.length > 0 && args[0].equals("--convertir-historial")) {
+            new ManejadorArchivos().convertirHistorialABinario();
+            return;
+        }
+
+        if (args.length > 1 && args[0].equals("--ver-repeticion")) {
+            new ManejadorArchivos().mostrarRepeticion(Long.parseLong(args[1]), new ConsolaCarrera());
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("--servidor")) {
+            iniciarServidor(args.length > 1 ? Integer.parseInt(args[1]) : ServidorCarreras.PUERTO_PREDETERMINADO);
+            return;
+        }
+
         SistemaJuego sistema = new SistemaJuego();
+        if (args.length > 0 && args[0].equals("--grabar-repeticiones")) {
+            sistema.activarRepeticiones();
+        }
         sistema.iniciar();
     }
-}
\ No newline at end of file
+
+    /**
+     * Atiende pedidos de carreras de otros procesos hasta que se cierre el programa
+     */
+    private static void iniciarServidor(int puerto) {
+        RegistroCorredores corredores = new ManejadorArchivos().cargarCorredores();
+        ServidorCarreras servidor = new ServidorCarreras(corredores, Runtime.getRuntime().availableProcessors());
+        try {
+            int abierto = servidor.iniciar(puerto);
+            System.out.println("Servidor de carreras escuchando en localhost:" + abierto);
+        } catch (IOException e) {
+            System.out.println("Error al iniciar el servidor: " + e.getMessage());
+            return;
+        }
+        servidor.atender();
+    }
+}
@@ -1,45 +1,88 @@
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 /**
  * Clase que maneja la lectura y escritura de archivos
  */
 public class ManejadorArchivos {
     private static final String ARCHIVO_PERSONAJES = "personajes.csv";
+    private static final String ARCHIVO_POWER_UPS = "powerups.csv";
     private static final String ARCHIVO_HISTORIAL = "historial.txt";
+    private static final String ARCHIVO_HISTORIAL_BINARIO = "historial.bin";
+    private static final String ARCHIVO_INSTANTANEA = "estadisticas.snap";
+    private static final String ARCHIVO_REPETICIONES = "repeticiones.bin";
+    private static final int CORREDORES_POR_CARRERA = 3;
+    private static final int TAMANO_LOTE_HISTORIAL = 8;
+    private static final RegistroHistorial.PoliticaSincronizacion SINCRONIZACION_HISTORIAL =
+            RegistroHistorial.PoliticaSincronizacion.POR_LOTE;
+
+    // Tamano minimo de cada tramo al recorrer el historial en paralelo
+    private static final long BYTES_MINIMOS_POR_TRAMO = 4L << 20;
+    private static final long CARRERAS_MINIMAS_POR_TRAMO = 1L << 20;
+    private static final int TRAMOS_POR_NUCLEO = 4;
+
+    private File directorio;
+    private RegistroHistorial registroHistorial;
+
+    /**
+     * Constructor que usa los archivos del directorio actual
+     */
+    public ManejadorArchivos() {
+        this(new File("."));
+    }
+
+    /**
+     * Constructor que usa los archivos de otro directorio
+     */
+    public ManejadorArchivos(File directorio) {
+        this.directorio = directorio;
+    }
 
     /**
      * Carga los corredores
      */
-    public ArrayList<Corredor> cargarCorredores() {
-        ArrayList<Corredor> corredores = new ArrayList<>();
+    public RegistroCorredores cargarCorredores() {
+        long inicio = Metricas.reloj();
+        RegistroCorredores corredores = new RegistroCorredores();
+        CatalogoPowerUps catalogo = cargarPowerUps();
 
-        try (BufferedReader br = new BufferedReader(new FileReader(ARCHIVO_PERSONAJES))) {
-            String linea;
-            boolean primeraLinea = true;
+        try (FileInputStream entrada = new FileInputStream(archivo(ARCHIVO_PERSONAJES))) {
+            LectorCsv lector = new LectorCsv(entrada.getChannel(), ARCHIVO_PERSONAJES);
 
-            while ((linea = br.readLine()) != null) {
+            while (lector.siguienteLinea()) {
                 // Saltar la primera linea
-                if (primeraLinea) {
-                    primeraLinea = false;
+                if (lector.getNumeroLinea() == 1) {
                     continue;
                 }
 
-                String[] datos = linea.split(",");
-                if (datos.length >= 3) {
-                    String nombre = datos[0].trim();
-                    int velocidad = Integer.parseInt(datos[1].trim());
-                    String nombrePowerUp = datos[2].trim();
+                if (lector.getCantidadCampos() < 3) {
+                    lector.reportarLineaInvalida("se esperaban 3 campos");
+                    continue;
+                }
+                long velocidad = lector.entero(1);
+                if (velocidad == LectorCsv.NO_ENTERO) {
+                    lector.reportarLineaInvalida("velocidad invalida");
+                    continue;
+                }
 
-                    // Crear power-up basado en el nombre
-                    PowerUp powerUp = crearPowerUp(nombrePowerUp);
+                // Todos los corredores con el mismo power-up comparten la instancia
+                PowerUp powerUp = catalogo.resolver(lector.getDatos(), lector.getInicio(2), lector.getFin(2));
 
-                    Corredor corredor = new Corredor(nombre, velocidad, powerUp);
-                    corredores.add(corredor);
+                String nombre = lector.texto(0);
+                Corredor corredor = new Corredor(nombre, (int) velocidad, powerUp);
+                if (corredores.registrar(corredor) == null) {
+                    System.out.println("Corredor repetido ignorado: " + nombre);
                 }
             }
+            lector.mostrarResumen();
 
-           // System.out.println("Corredores cargados exitosamente: " + corredores.size()); //
+           // System.out.println("Corredores cargados exitosamente: " + corredores.tamano()); //
 
         } catch (FileNotFoundException e) {
             System.out.println("Archivo " + ARCHIVO_PERSONAJES + " no encontrado.");
@@ -48,37 +91,81 @@ public class ManejadorArchivos {
             System.out.println("Error al leer el archivo de personajes: " + e.getMessage());
         }
 
+        if (Metricas.ACTIVAS) {
+            Metricas.lectura(Metricas.CARGA_CORREDORES, inicio,
+                    archivo(ARCHIVO_PERSONAJES).length() + archivo(ARCHIVO_POWER_UPS).length());
+        }
         return corredores;
     }
 
     /**
-     * Crea un power-up basado en el nombre
+     * Carga el catalogo de power-ups
+     * Si el archivo no existe se crea con los power-ups por defecto
      */
-    private PowerUp crearPowerUp(String nombre) {
-        // Asignar bonus y duracion segun el tipo de power-up
-        int bonus = 20;
-        int duracion = 2;
+    public CatalogoPowerUps cargarPowerUps() {
+        CatalogoPowerUps catalogo = new CatalogoPowerUps();
+
+        try (FileInputStream entrada = new FileInputStream(archivo(ARCHIVO_POWER_UPS))) {
+            LectorCsv lector = new LectorCsv(entrada.getChannel(), ARCHIVO_POWER_UPS);
+
+            while (lector.siguienteLinea()) {
+                // Saltar la primera linea
+                if (lector.getNumeroLinea() == 1) {
+                    continue;
+                }
+
+                if (lector.getCantidadCampos() < 3) {
+                    lector.reportarLineaInvalida("se esperaban 3 campos");
+                    continue;
+                }
+                long bonus = lector.entero(1);
+                long duracion = lector.entero(2);
+                if (bonus == LectorCsv.NO_ENTERO || duracion == LectorCsv.NO_ENTERO) {
+                    lector.reportarLineaInvalida("bonus o duracion invalidos");
+                    continue;
+                }
 
-        // Variaciones segun el nombre
-        if (nombre.toLowerCase().contains("turbo") || nombre.toLowerCase().contains("nitro")) {
-            bonus = 30;
-            duracion = 1;
-        } else if (nombre.toLowerCase().contains("boost")) {
-            bonus = 25;
-            duracion = 2;
-        } else if (nombre.toLowerCase().contains("cafe") || nombre.toLowerCase().contains("coffee")) {
-            bonus = 20;
-            duracion = 3;
+                String nombre = lector.texto(0);
+                if (catalogo.registrar(nombre, (int) bonus, (int) duracion) == null) {
+                    System.out.println("Power-up repetido ignorado: " + nombre);
+                }
+            }
+            lector.mostrarResumen();
+        } catch (FileNotFoundException e) {
+            crearArchivoPowerUpsDefault(catalogo);
+        } catch (IOException e) {
+            System.out.println("Error al leer el archivo de power-ups: " + e.getMessage());
         }
 
-        return new PowerUp(nombre, bonus, duracion);
+        return catalogo;
+    }
+
+    /**
+     * Crea el archivo de power-ups por defecto y los agrega al catalogo
+     */
+    private void crearArchivoPowerUpsDefault(CatalogoPowerUps catalogo) {
+        catalogo.registrar("Lasagna Turbo", 30, 1);
+        catalogo.registrar("Crazy Boost", 25, 2);
+        catalogo.registrar("Cute Power", 20, 2);
+        catalogo.registrar("Pink Speed", 20, 2);
+        catalogo.registrar("Coffee Rush", 20, 3);
+
+        try (PrintWriter pw = new PrintWriter(new FileWriter(archivo(ARCHIVO_POWER_UPS)))) {
+            pw.println("Nombre,Bonus,Duracion");
+            for (int id = 0; id < catalogo.tamano(); id++) {
+                PowerUp powerUp = catalogo.buscarPorId(id);
+                pw.println(powerUp.getNombre() + "," + powerUp.getBonus() + "," + powerUp.getDuracion());
+            }
+        } catch (IOException e) {
+            System.out.println("Error al crear archivo: " + e.getMessage());
+        }
     }
 
     /**
      * Crea un archivo de personajes por defecto si no existe
      */
     private void crearArchivoPersonajesDefault() {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(ARCHIVO_PERSONAJES))) {
+        try (PrintWriter pw = new PrintWriter(new FileWriter(archivo(ARCHIVO_PERSONAJES)))) {
             pw.println("Nombre,Velocidad,PowerUp");
             pw.println("Garfield,45,Lasagna Turbo");
             pw.println("Odie,50,Crazy Boost");
@@ -93,70 +180,402 @@ public class ManejadorArchivos {
 
     /**
      * Carga el historial desde el archivo
+     * Si hay una instantanea de estadisticas valida, solo se recorre lo escrito despues de ella.
+     * Cada tramo del historial se cuenta en paralelo y los conteos se suman al final
      */
-    public void cargarHistorial(ArrayList<Corredor> corredores) {
-        File archivo = new File(ARCHIVO_HISTORIAL);
-        if (!archivo.exists()) {
-            System.out.println("Archivo no encontrado. Se creara al guardar.");
-            return;
+    public void cargarHistorial(RegistroCorredores corredores) {
+        long inicio = Metricas.reloj();
+        int cantidad = corredores.tamano();
+        long desde = cargarInstantanea(corredores);
+        ConteoHistorial conteo = recorrerEnParalelo(corredores, desde, ConteoHistorial.memoriaEstimada(cantidad),
+                () -> new ConteoHistorial(cantidad), ConteoHistorial::combinar);
+        conteo.aplicar(corredores.getEstadisticas());
+
+        // Los bytes del historial los cuenta el recorrido; aca solo los de la instantanea
+        if (Metricas.ACTIVAS) {
+            Metricas.lectura(Metricas.CARGA_HISTORIAL, inicio, desde >= 0 ? archivo(ARCHIVO_INSTANTANEA).length() : 0);
         }
+    }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(ARCHIVO_HISTORIAL))) {
-            String linea;
-            int carrerasCargadas = 0;
-
-            while ((linea = br.readLine()) != null) {
-                String[] datos = linea.split(",");
-                if (datos.length >= 6) {
-                    // Formato: corredor1,corredor2,corredor3,posicion1,posicion2,posicion3
-                    String[] nombres = {datos[0].trim(), datos[1].trim(), datos[2].trim()};
-                    int[] posiciones = {
-                            Integer.parseInt(datos[3].trim()),
-                            Integer.parseInt(datos[4].trim()),
-                            Integer.parseInt(datos[5].trim())
-                    };
-
-                    // Actualizar estadisticas de cada corredor
-                    for (int i = 0; i < nombres.length; i++) {
-                        Corredor corredor = buscarCorredor(corredores, nombres[i]);
-                        if (corredor != null) {
-                            corredor.registrarCarrera(posiciones[i]);
-                        }
-                    }
+    /**
+     * Guarda una instantanea de las estadisticas que cubre todo el historial escrito hasta ahora
+     */
+    public void guardarInstantanea(RegistroCorredores corredores) {
+        // Las carreras pendientes tienen que estar en el archivo antes de medir su largo
+        vaciarHistorial();
+
+        File historial = archivo(ARCHIVO_HISTORIAL);
+        long inicio = Metricas.reloj();
+        try {
+            InstantaneaEstadisticas.guardar(archivo(ARCHIVO_INSTANTANEA), historial, historial.length(), corredores);
+            if (Metricas.ACTIVAS) {
+                Metricas.escritura(Metricas.GUARDADO_INSTANTANEA, inicio, archivo(ARCHIVO_INSTANTANEA).length());
+            }
+        } catch (IOException e) {
+            System.out.println("Error al guardar las estadisticas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Suma a los corredores las estadisticas de la instantanea, si existe y sigue valida
+     * @return Bytes de historial.txt ya sumados, o -1 si hay que recorrer el historial completo
+     */
+    private long cargarInstantanea(RegistroCorredores corredores) {
+        File instantanea = archivo(ARCHIVO_INSTANTANEA);
+        if (!instantanea.exists()) {
+            return -1;
+        }
+
+        try {
+            long desde = InstantaneaEstadisticas.cargar(instantanea, archivo(ARCHIVO_HISTORIAL), corredores);
+            if (desde < 0) {
+                System.out.println("La instantanea de estadisticas no corresponde al historial actual. " +
+                        "Se recorrera el historial completo.");
+            }
+            return desde;
+        } catch (IOException e) {
+            System.out.println("Error al leer las estadisticas guardadas: " + e.getMessage());
+            return -1;
+        }
+    }
 
-                    carrerasCargadas++;
+    /**
+     * Recorre el historial completo entregando cada carrera al visitante
+     * Si existe historial.bin se recorre primero y luego solo la parte de
+     * historial.txt que se escribio despues de la conversion
+     */
+    public void recorrerHistorial(RegistroCorredores corredores, VisitanteHistorial visitante) {
+        long desde = 0;
+
+        if (archivo(ARCHIVO_HISTORIAL_BINARIO).exists()) {
+            try {
+                desde = HistorialBinario.recorrer(archivo(ARCHIVO_HISTORIAL_BINARIO).getPath(), corredores, visitante);
+            } catch (IOException e) {
+                System.out.println("Error al leer el historial binario: " + e.getMessage());
+            }
+        }
+
+        File csv = archivo(ARCHIVO_HISTORIAL);
+        if (verificarHistorialCsv(csv, desde)) {
+            recorrerHistorialCsv(corredores, csv, desde <= csv.length() ? desde : 0, Long.MAX_VALUE, visitante);
+        }
+    }
+
+    /**
+     * Recorre el historial en paralelo dividiendolo en tramos
+     * Los tramos del binario se cortan por cantidad de carreras y los del texto por bytes,
+     * alineados al inicio de una linea. Cada tramo se recorre con su propio visitante y
+     * los visitantes se combinan en el orden del historial, asi el resultado es el mismo
+     * que el de un recorrido secuencial.
+     * @param bytesPorVisitante Memoria estimada de cada visitante; limita cuantos tramos se crean
+     * @param crear Crea un visitante vacio
+     * @param combinar Agrega al primer visitante lo del segundo (que es el tramo siguiente)
+     * @return El visitante con todo el historial
+     */
+    public <V extends VisitanteHistorial> V recorrerHistorialEnParalelo(RegistroCorredores corredores,
+                                                                        long bytesPorVisitante,
+                                                                        Supplier<V> crear,
+                                                                        BiConsumer<V, V> combinar) {
+        return recorrerEnParalelo(corredores, -1, bytesPorVisitante, crear, combinar);
+    }
+
+    /**
+     * Recorre el historial en paralelo
+     * @param desdeCsv Byte de historial.txt desde el que se recorre (sin usar historial.bin),
+     *                 o -1 para recorrer el historial completo
+     */
+    private <V extends VisitanteHistorial> V recorrerEnParalelo(RegistroCorredores corredores, long desdeCsv,
+                                                                long bytesPorVisitante,
+                                                                Supplier<V> crear, BiConsumer<V, V> combinar) {
+        ArrayList<Consumer<VisitanteHistorial>> tramos = new ArrayList<>();
+        int maximoTramos = maximoTramos(bytesPorVisitante);
+        long desde = Math.max(desdeCsv, 0);
+
+        File binario = archivo(ARCHIVO_HISTORIAL_BINARIO);
+        if (desdeCsv < 0 && binario.exists()) {
+            try {
+                HistorialBinario.Encabezado encabezado = HistorialBinario.leerEncabezado(binario.getPath(), corredores);
+                desde = encabezado.getBytesCubiertos();
+                long carreras = encabezado.getCarreras();
+                long porTramo = tamanoTramo(carreras, CARRERAS_MINIMAS_POR_TRAMO, maximoTramos);
+                for (long inicio = 0; inicio < carreras; inicio += porTramo) {
+                    long tramoDesde = inicio;
+                    long tramoHasta = Math.min(carreras, inicio + porTramo);
+                    tramos.add(visitante -> recorrerTramoBinario(binario, encabezado, tramoDesde, tramoHasta, visitante));
                 }
+            } catch (IOException e) {
+                System.out.println("Error al leer el historial binario: " + e.getMessage());
+            }
+        }
+
+        File csv = archivo(ARCHIVO_HISTORIAL);
+        if (verificarHistorialCsv(csv, desde)) {
+            long inicioCsv = desde <= csv.length() ? desde : 0;
+            long fin = csv.length();
+            long porTramo = tamanoTramo(fin - inicioCsv, BYTES_MINIMOS_POR_TRAMO, maximoTramos);
+            for (long inicio = inicioCsv; inicio < fin; inicio += porTramo) {
+                long tramoDesde = inicio;
+                // El ultimo tramo incluye lo que se agregue mientras se lee, igual que el recorrido secuencial
+                long tramoHasta = inicio + porTramo < fin ? inicio + porTramo : Long.MAX_VALUE;
+                boolean alinear = inicio > inicioCsv;
+                tramos.add(visitante -> recorrerHistorialCsv(corredores, csv,
+                        alinear ? buscarInicioLinea(csv, tramoDesde) : tramoDesde, tramoHasta, visitante));
+            }
+        }
+
+        if (Metricas.ACTIVAS) {
+            Metricas.bytesLeidos(bytesRecorridos(desdeCsv, desde));
+        }
+
+        // collect de un stream ordenado combina los resultados en el orden de los tramos
+        return IntStream.range(0, tramos.size()).parallel().collect(crear,
+                (visitante, i) -> tramos.get(i).accept(visitante), combinar);
+    }
+
+    /**
+     * Calcula cuantos bytes lee un recorrido del historial, para las metricas
+     * @param desdeCsv Byte pedido de historial.txt, o -1 si tambien se lee historial.bin
+     * @param desde Byte de historial.txt desde el que se lee el texto
+     */
+    private long bytesRecorridos(long desdeCsv, long desde) {
+        long bytes = 0;
+        File binario = archivo(ARCHIVO_HISTORIAL_BINARIO);
+        if (desdeCsv < 0 && binario.exists()) {
+            bytes += binario.length();
+        }
+        long csv = archivo(ARCHIVO_HISTORIAL).length();
+        return bytes + (desde <= csv ? csv - desde : csv);
+    }
+
+    /**
+     * Calcula cuantos tramos recorrer: cuatro por nucleo, pero sin que los visitantes
+     * de todos los tramos pasen de la mitad de la memoria libre
+     */
+    private static int maximoTramos(long bytesPorVisitante) {
+        Runtime runtime = Runtime.getRuntime();
+        long porNucleo = (long) runtime.availableProcessors() * TRAMOS_POR_NUCLEO;
+        long libre = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        long porMemoria = libre / 2 / Math.max(1, bytesPorVisitante);
+        return (int) Math.max(1, Math.min(porNucleo, porMemoria));
+    }
+
+    /**
+     * Calcula cuanto abarca cada tramo para no pasar del maximo de tramos ni bajar del minimo por tramo
+     */
+    private static long tamanoTramo(long total, long minimo, int maximoTramos) {
+        return Math.max(minimo, (total + maximoTramos - 1) / maximoTramos);
+    }
+
+    private void recorrerTramoBinario(File binario, HistorialBinario.Encabezado encabezado,
+                                      long desde, long hasta, VisitanteHistorial visitante) {
+        try {
+            HistorialBinario.recorrer(binario.getPath(), encabezado, desde, hasta, visitante);
+        } catch (IOException e) {
+            System.out.println("Error al leer el historial binario: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Verifica que exista el historial de texto y que no sea mas corto que lo ya convertido
+     * @return false si no hay historial de texto
+     */
+    private boolean verificarHistorialCsv(File archivo, long desde) {
+        if (!archivo.exists()) {
+            if (desde == 0) {
+                System.out.println("Archivo no encontrado. Se creara al guardar.");
             }
+            return false;
+        }
 
+        if (archivo.length() < desde) {
+            System.out.println("El archivo " + ARCHIVO_HISTORIAL + " es mas corto que lo convertido en " +
+                    ARCHIVO_HISTORIAL_BINARIO + ". Se leera completo.");
+        }
+        return true;
+    }
 
+    /**
+     * Busca donde empieza la primera linea que comienza en la posicion indicada o despues
+     */
+    private long buscarInicioLinea(File archivo, long posicion) {
+        try (FileInputStream entrada = new FileInputStream(archivo)) {
+            FileChannel canal = entrada.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocate(8192);
+            long actual = posicion - 1;
+            while (true) {
+                buffer.clear();
+                int leidos = canal.read(buffer, actual);
+                if (leidos <= 0) {
+                    return Long.MAX_VALUE;
+                }
+                for (int i = 0; i < leidos; i++) {
+                    if (buffer.get(i) == '\n') {
+                        return actual + i + 1;
+                    }
+                }
+                actual += leidos;
+            }
         } catch (IOException e) {
             System.out.println("Error al leer el historial: " + e.getMessage());
+            return Long.MAX_VALUE;
         }
     }
 
     /**
-     * Busca un corredor por nombre
+     * Recorre las lineas del historial de texto que empiezan en [desde, hasta)
+     * @param desde Debe ser el inicio de una linea
      */
-    private Corredor buscarCorredor(ArrayList<Corredor> corredores, String nombre) {
-        for (Corredor corredor : corredores) {
-            if (corredor.getNombre().equals(nombre)) {
-                return corredor;
+    private void recorrerHistorialCsv(RegistroCorredores corredores, File archivo, long desde, long hasta,
+                                      VisitanteHistorial visitante) {
+        if (desde >= hasta) {
+            return;
+        }
+
+        try (FileInputStream entrada = new FileInputStream(archivo)) {
+            FileChannel canal = entrada.getChannel();
+            canal.position(desde);
+            LectorCsv lector = new LectorCsv(canal, ARCHIVO_HISTORIAL, desde);
+            int[] ids = new int[CORREDORES_POR_CARRERA];
+            int[] posiciones = new int[CORREDORES_POR_CARRERA];
+
+            // Formato: corredor1,corredor2,corredor3,posicion1,posicion2,posicion3
+            while (lector.siguienteLinea() && lector.getPosicionLinea() < hasta) {
+                String motivo = HistorialBinario.motivoCarreraInvalida(lector, CORREDORES_POR_CARRERA);
+                if (motivo != null) {
+                    lector.reportarLineaInvalida(motivo);
+                    continue;
+                }
+
+                for (int i = 0; i < CORREDORES_POR_CARRERA; i++) {
+                    posiciones[i] = (int) lector.entero(CORREDORES_POR_CARRERA + i);
+                    ids[i] = corredores.buscarId(lector.getDatos(), lector.getInicio(i), lector.getFin(i));
+                }
+
+                visitante.carrera(ids, posiciones);
             }
+            lector.mostrarResumen();
+
+        } catch (IOException e) {
+            System.out.println("Error al leer el historial: " + e.getMessage());
         }
-        return null;
     }
 
     /**
-     * Guarda el historial en el archivo
+     * Escribe en el archivo las carreras pendientes del historial
      */
-    public void guardarHistorial(ArrayList<String> historial) {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(ARCHIVO_HISTORIAL))) {
-            for (String registro : historial) {
-                pw.println(registro);
+    public void vaciarHistorial() {
+        if (registroHistorial == null) {
+            return;
+        }
+
+        try {
+            registroHistorial.vaciar();
+        } catch (IOException e) {
+            System.out.println("Error al guardar el historial: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Convierte historial.txt al formato binario historial.bin
+     * Las carreras que se agreguen despues a historial.txt se siguen leyendo desde el texto
+     */
+    public void convertirHistorialABinario() {
+        try {
+            long carreras = HistorialBinario.convertirDesdeCsv(archivo(ARCHIVO_HISTORIAL).getPath(),
+                    archivo(ARCHIVO_HISTORIAL_BINARIO).getPath(), CORREDORES_POR_CARRERA);
+            System.out.println("Historial convertido: " + carreras + " carreras en " + ARCHIVO_HISTORIAL_BINARIO);
+        } catch (IOException e) {
+            System.out.println("Error al convertir el historial: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Agrega una carrera al final del historial
+     * El archivo se abre la primera vez y las carreras se escriben en lotes
+     */
+    public void registrarEnHistorial(String registro) {
+        try {
+            if (registroHistorial == null) {
+                registroHistorial = new RegistroHistorial(archivo(ARCHIVO_HISTORIAL).getPath(),
+                        TAMANO_LOTE_HISTORIAL, SINCRONIZACION_HISTORIAL);
             }
+            registroHistorial.registrar(registro);
+        } catch (IOException e) {
+            System.out.println("Error al guardar en el historial: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Escribe las carreras pendientes y cierra el historial
+     */
+    public void guardarHistorial() {
+        if (registroHistorial == null) {
+            System.out.println("Historial guardado exitosamente.");
+            return;
+        }
+
+        try {
+            registroHistorial.close();
             System.out.println("Historial guardado exitosamente.");
         } catch (IOException e) {
             System.out.println("Error al guardar el historial: " + e.getMessage());
+        } finally {
+            registroHistorial = null;
         }
     }
+
+    /**
+     * Abre el archivo de repeticiones para agregar carreras al final
+     * @param siguiente Escucha que recibe los eventos despues de grabarlos
+     * @return El grabador, o null si no se pudo abrir el archivo
+     */
+    public GrabadorRepeticion abrirGrabadorRepeticiones(EscuchaCarrera siguiente) {
+        File repeticiones = archivo(ARCHIVO_REPETICIONES);
+        try {
+            boolean archivoNuevo = repeticiones.length() == 0;
+            return new GrabadorRepeticion(new BufferedOutputStream(new FileOutputStream(repeticiones, true)),
+                    archivoNuevo, siguiente);
+        } catch (IOException e) {
+            System.out.println("Error al abrir las repeticiones: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Verifica y muestra por consola una carrera grabada
+     * @param numero Numero de la carrera dentro del archivo, desde 1
+     */
+    public void mostrarRepeticion(long numero, EscuchaCarrera escucha) {
+        File repeticiones = archivo(ARCHIVO_REPETICIONES);
+        if (!repeticiones.exists()) {
+            System.out.println("No hay carreras grabadas.");
+            return;
+        }
+
+        try (FileInputStream entrada = new FileInputStream(repeticiones)) {
+            LectorRepeticion lector = new LectorRepeticion(entrada);
+            if (numero < 1 || lector.saltar(numero - 1) < numero - 1 || !lector.siguiente()) {
+                System.out.println("No existe la carrera " + numero + ".");
+                return;
+            }
+
+            System.out.println("Carrera " + numero + " (semilla " + lector.getSemilla() + ", " +
+                    lector.getCantidadTurnos() + " turnos)");
+            if (lector.verificar()) {
+                System.out.println("La carrera se repite igual a partir de su semilla.");
+            } else {
+                System.out.println("Atencion: la carrera grabada no coincide con la simulacion de su semilla.");
+            }
+            lector.reproducir(escucha);
+        } catch (IOException e) {
+            System.out.println("Error al leer las repeticiones: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene un archivo dentro del directorio de datos
+     */
+    private File archivo(String nombre) {
+        return new File(directorio, nombre);
+    }
 }
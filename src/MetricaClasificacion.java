@@ -0,0 +1,8 @@
+/**
+ * Enumeracion de las metricas por las que se puede clasificar a los corredores
+ */
+public enum MetricaClasificacion {
+    VICTORIAS,
+    PORCENTAJE_VICTORIAS,
+    CARRERAS_JUGADAS
+}
@@ -0,0 +1,255 @@
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Clase que mide el rendimiento de las carreras y de los archivos
+ * Se activa con -Dcarreras.metricas=true. ACTIVAS se lee al cargar la clase, asi que
+ * javac no elimina nada; pero como es static final, el JIT la toma como constante al
+ * compilar los metodos calientes y descarta las mediciones desactivadas. Para que el
+ * costo sin JIT tambien sea minimo, los lugares medidos preguntan por ACTIVAS antes de
+ * leer la hora o el tamano de un archivo, o usan reloj(), que sin metricas no la lee.
+ * Con -Dcarreras.metricas.archivo=ruta las metricas se escriben en ese archivo cada
+ * -Dcarreras.metricas.intervalo segundos (10 por defecto). El servidor tambien las
+ * entrega con el pedido METRICAS. Cada consumidor que quiera las carreras por segundo
+ * de su propio intervalo usa su Ventana, asi unos no le cambian el intervalo a otros.
+ */
+public class Metricas {
+    public static final boolean ACTIVAS = Boolean.getBoolean("carreras.metricas");
+    private static final long INTERVALO_PREDETERMINADO = 10; // Segundos
+
+    private static final LongAdder carreras = new LongAdder();
+    private static final LongAdder turnos = new LongAdder();
+    private static final LongAdder bytesLeidos = new LongAdder();
+    private static final LongAdder bytesEscritos = new LongAdder();
+    private static final LongAdder aciertosCache = new LongAdder();
+    private static final LongAdder fallosCache = new LongAdder();
+
+    public static final HistogramaLatencias CARGA_CORREDORES = new HistogramaLatencias("cargar_corredores");
+    public static final HistogramaLatencias CARGA_HISTORIAL = new HistogramaLatencias("cargar_historial");
+    public static final HistogramaLatencias GUARDADO_HISTORIAL = new HistogramaLatencias("guardar_historial");
+    public static final HistogramaLatencias GUARDADO_INSTANTANEA = new HistogramaLatencias("guardar_instantanea");
+    public static final HistogramaLatencias ESTADISTICAS = new HistogramaLatencias("mostrar_estadisticas");
+    private static final HistogramaLatencias[] HISTOGRAMAS = {
+            CARGA_CORREDORES, CARGA_HISTORIAL, GUARDADO_HISTORIAL, GUARDADO_INSTANTANEA, ESTADISTICAS
+    };
+
+    private static final long inicio = System.nanoTime();
+    private static ScheduledExecutorService exportador;
+
+    private Metricas() {
+    }
+
+    /**
+     * Lee la hora para medir una duracion; devuelve 0 si las metricas estan desactivadas
+     */
+    public static long reloj() {
+        return ACTIVAS ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Registra una carrera simulada
+     */
+    public static void carrera(int turnosJugados) {
+        if (ACTIVAS) {
+            carreras.increment();
+            turnos.add(turnosJugados);
+        }
+    }
+
+    /**
+     * Registra una lectura de archivos
+     * @param desde Valor de reloj() al empezar
+     */
+    public static void lectura(HistogramaLatencias histograma, long desde, long bytes) {
+        if (ACTIVAS) {
+            histograma.registrar(System.nanoTime() - desde);
+            bytesLeidos.add(bytes);
+        }
+    }
+
+    /**
+     * Registra una escritura de archivos
+     * @param desde Valor de reloj() al empezar
+     */
+    public static void escritura(HistogramaLatencias histograma, long desde, long bytes) {
+        if (ACTIVAS) {
+            histograma.registrar(System.nanoTime() - desde);
+            bytesEscritos.add(bytes);
+        }
+    }
+
+    /**
+     * Suma bytes leidos por una operacion que se mide en otro lugar
+     */
+    public static void bytesLeidos(long bytes) {
+        if (ACTIVAS) {
+            bytesLeidos.add(bytes);
+        }
+    }
+
+    /**
+     * Registra una operacion sin archivos
+     * @param desde Valor de reloj() al empezar
+     */
+    public static void duracion(HistogramaLatencias histograma, long desde) {
+        if (ACTIVAS) {
+            histograma.registrar(System.nanoTime() - desde);
+        }
+    }
+
+    /**
+     * Registra una consulta a una cache de resultados
+     */
+    public static void consultaCache(boolean acierto) {
+        if (ACTIVAS) {
+            (acierto ? aciertosCache : fallosCache).increment();
+        }
+    }
+
+    /**
+     * Toma los valores actuales de todas las metricas, en un orden fijo
+     * Las carreras por segundo son el promedio desde que empezo el programa.
+     */
+    public static Map<String, String> instantanea() {
+        return instantanea(null);
+    }
+
+    /**
+     * Toma los valores actuales y ademas las carreras por segundo desde la instantanea
+     * anterior de la misma ventana
+     * @param ventana Intervalo propio del que pide las metricas, o null
+     */
+    public static Map<String, String> instantanea(Ventana ventana) {
+        Map<String, String> valores = new LinkedHashMap<>();
+        long ahora = System.nanoTime();
+        long totalCarreras = carreras.sum();
+        long totalTurnos = turnos.sum();
+        double segundosActivo = (ahora - inicio) / 1e9;
+        long aciertos = aciertosCache.sum();
+        long consultas = aciertos + fallosCache.sum();
+
+        valores.put("activas", String.valueOf(ACTIVAS));
+        valores.put("segundos_activo", formato(segundosActivo));
+        valores.put("carreras", String.valueOf(totalCarreras));
+        valores.put("carreras_por_segundo", formato(segundosActivo > 0 ? totalCarreras / segundosActivo : 0));
+        if (ventana != null) {
+            valores.put("carreras_por_segundo_intervalo", formato(ventana.avanzar(ahora, totalCarreras)));
+        }
+        valores.put("turnos", String.valueOf(totalTurnos));
+        valores.put("turnos_por_carrera", formato(totalCarreras == 0 ? 0 : (double) totalTurnos / totalCarreras));
+        valores.put("bytes_leidos", String.valueOf(bytesLeidos.sum()));
+        valores.put("bytes_escritos", String.valueOf(bytesEscritos.sum()));
+        valores.put("cache_aciertos", String.valueOf(aciertos));
+        valores.put("cache_fallos", String.valueOf(consultas - aciertos));
+        valores.put("cache_tasa_aciertos", formato(consultas == 0 ? 0 : (double) aciertos / consultas));
+        for (HistogramaLatencias histograma : HISTOGRAMAS) {
+            String nombre = histograma.getNombre();
+            valores.put(nombre + ".cantidad", String.valueOf(histograma.getCantidad()));
+            valores.put(nombre + ".promedio_ms", formato(histograma.getPromedio() / 1e6));
+            valores.put(nombre + ".p50_ms", formato(histograma.getPercentil(50) / 1e6));
+            valores.put(nombre + ".p90_ms", formato(histograma.getPercentil(90) / 1e6));
+            valores.put(nombre + ".p99_ms", formato(histograma.getPercentil(99) / 1e6));
+            valores.put(nombre + ".max_ms", formato(histograma.getMaximo() / 1e6));
+        }
+        return valores;
+    }
+
+    /**
+     * Escribe una instantanea en un archivo, una metrica por linea ("nombre valor")
+     * Se escribe en un temporal y se renombra, asi quien lo lea nunca ve un archivo a medias.
+     */
+    public static void exportar(File archivo) throws IOException {
+        exportar(archivo, null);
+    }
+
+    /**
+     * Escribe una instantanea con las carreras por segundo del intervalo de la ventana
+     */
+    public static void exportar(File archivo, Ventana ventana) throws IOException {
+        File temporal = new File(archivo.getPath() + ".tmp");
+        try (Writer salida = new OutputStreamWriter(new FileOutputStream(temporal), StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, String> metrica : instantanea(ventana).entrySet()) {
+                salida.write(metrica.getKey() + " " + metrica.getValue() + "\n");
+            }
+        }
+        Files.move(temporal.toPath(), archivo.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Empieza a exportar las metricas periodicamente si se pidio un archivo
+     * No hace nada si las metricas estan desactivadas o ya se estan exportando.
+     */
+    public static synchronized void iniciarExportacion() {
+        String ruta = System.getProperty("carreras.metricas.archivo");
+        if (!ACTIVAS || ruta == null || ruta.isBlank() || exportador != null) {
+            return;
+        }
+        File archivo = new File(ruta);
+        long intervalo = Math.max(1, Long.getLong("carreras.metricas.intervalo", INTERVALO_PREDETERMINADO));
+
+        exportador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "exportador-metricas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        Ventana ventana = new Ventana();
+        exportador.scheduleAtFixedRate(() -> exportarA(archivo, ventana), intervalo, intervalo, TimeUnit.SECONDS);
+        // La ultima instantanea se escribe al cerrar el programa
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> exportarA(archivo, ventana), "metricas-finales"));
+    }
+
+    private static void exportarA(File archivo, Ventana ventana) {
+        try {
+            exportar(archivo, ventana);
+        } catch (IOException e) {
+            System.out.println("Error al exportar las metricas: " + e.getMessage());
+        }
+    }
+
+    private static String formato(double valor) {
+        return String.format(Locale.ROOT, "%.3f", valor);
+    }
+
+    /**
+     * Clase que recuerda la instantanea anterior de un consumidor de metricas
+     * para calcular las carreras por segundo de su ultimo intervalo
+     */
+    public static class Ventana {
+        private long instanteAnterior;
+        private long carrerasAnteriores;
+
+        /**
+         * Constructor de la ventana; el primer intervalo empieza ahora
+         */
+        public Ventana() {
+            this.instanteAnterior = System.nanoTime();
+            this.carrerasAnteriores = carreras.sum();
+        }
+
+        /**
+         * Cierra el intervalo actual y empieza el siguiente
+         * @return Carreras por segundo del intervalo cerrado
+         */
+        private synchronized double avanzar(long ahora, long totalCarreras) {
+            double segundos = (ahora - instanteAnterior) / 1e9;
+            double porSegundo = segundos > 0 ? (totalCarreras - carrerasAnteriores) / segundos : 0;
+            instanteAnterior = ahora;
+            carrerasAnteriores = totalCarreras;
+            return porSegundo;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Clase que simula carreras con muchos corredores (cientos o miles)
+ * Guarda el estado de todos los corredores en arreglos paralelos de primitivos y
+ * avanza a todo el grupo en ciclos simples, sin crear objetos durante la carrera.
+ * Usa las mismas reglas y el mismo orden de numeros aleatorios que Carrera, asi que
+ * con la misma semilla produce exactamente las mismas distancias.
+ */
+public class MotorCarreraMasiva {
+    private int cantidad;
+
+    // Definicion de cada corredor
+    private int[] ids;
+    private int[] velocidades;
+    private int[] bonus;
+    private int[] duraciones;
+
+    // Estado de la carrera
+    private int[] posiciones;
+    private int[] turnosPowerUp;
+    private boolean[] powerUpActivo;
+    private int[] turnosLlegada;
+    private RegistroLlegadas llegadas;
+    private boolean modoLlegadas;
+    private int turnosJugados;
+    private int turnosMaximos;      // 0 = sin limite
+    private boolean cortada;
+
+    // Numeros aleatorios del turno actual
+    private boolean[] activaciones;
+    private int[] factores;
+
+    private FuenteAleatoria aleatorio;
+
+    /**
+     * Constructor del motor con los participantes de la carrera
+     */
+    public MotorCarreraMasiva(ArrayList<Corredor> participantes, FuenteAleatoria aleatorio) {
+        this.cantidad = participantes.size();
+        this.ids = new int[cantidad];
+        this.velocidades = new int[cantidad];
+        this.bonus = new int[cantidad];
+        this.duraciones = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            Corredor corredor = participantes.get(i);
+            ids[i] = corredor.getId();
+            velocidades[i] = corredor.getVelocidadBase();
+            bonus[i] = corredor.getPowerUp().getBonus();
+            duraciones[i] = corredor.getPowerUp().getDuracion();
+        }
+
+        this.posiciones = new int[cantidad];
+        this.turnosPowerUp = new int[cantidad];
+        this.powerUpActivo = new boolean[cantidad];
+        this.turnosLlegada = new int[cantidad];
+        Arrays.fill(turnosLlegada, OrdenadorPosiciones.SIN_LLEGADA);
+        this.llegadas = new RegistroLlegadas(ids);
+        this.activaciones = new boolean[cantidad];
+        this.factores = new int[cantidad];
+        this.aleatorio = aleatorio;
+    }
+
+    /**
+     * Reinicia el estado para simular otra carrera con los mismos participantes
+     */
+    public void reiniciar() {
+        Arrays.fill(posiciones, 0);
+        Arrays.fill(turnosPowerUp, 0);
+        Arrays.fill(powerUpActivo, false);
+        Arrays.fill(turnosLlegada, OrdenadorPosiciones.SIN_LLEGADA);
+        llegadas.reiniciar();
+        turnosJugados = 0;
+        cortada = false;
+    }
+
+    /**
+     * Limita la cantidad de turnos, igual que Carrera.setTurnosMaximos: al llegar al
+     * limite la carrera termina aunque nadie haya llegado. Con 0 no hay limite.
+     */
+    public void setTurnosMaximos(int turnosMaximos) {
+        this.turnosMaximos = turnosMaximos;
+    }
+
+    /**
+     * Simula la carrera hasta que alguien llegue a la meta
+     * @return Distancia final de cada participante, en el orden en que se agregaron
+     */
+    public int[] simular() {
+        int maximo = 0;
+        modoLlegadas = false;
+        cortada = false;
+        if (cantidad == 0) {
+            return posiciones;
+        }
+
+        while (maximo < Carrera.META && !limiteAlcanzado()) {
+            turnosJugados++;
+            sortearTurno();
+            maximo = avanzarTurno();
+            llegadas.cerrarTurno();
+        }
+
+        cortada = maximo < Carrera.META;
+        return posiciones;
+    }
+
+    /**
+     * Simula la carrera hasta que llegan a la meta k corredores
+     * Es el modo de llegadas de Carrera: quien llega deja de correr y los que llegaron
+     * se ordenan por el momento exacto en que cruzaron la meta. En grupos grandes
+     * termina apenas se conocen los k primeros lugares, sin simular al resto.
+     * @return Distancia final de cada participante, en el orden en que se agregaron
+     */
+    public int[] simularHastaLlegadas(int k) {
+        int requeridas = Math.min(k, cantidad);
+        modoLlegadas = true;
+        cortada = false;
+        if (cantidad == 0) {
+            return posiciones;
+        }
+
+        while (llegadas.getCantidad() < requeridas && !limiteAlcanzado()) {
+            turnosJugados++;
+            sortearTurno();
+            avanzarTurno();
+            llegadas.cerrarTurno();
+        }
+
+        cortada = llegadas.getCantidad() < requeridas;
+        return posiciones;
+    }
+
+    private boolean limiteAlcanzado() {
+        return turnosMaximos > 0 && turnosJugados >= turnosMaximos;
+    }
+
+    /**
+     * Sortea los numeros aleatorios del turno en el mismo orden que Carrera
+     */
+    private void sortearTurno() {
+        for (int i = 0; i < cantidad; i++) {
+            if (turnosLlegada[i] != OrdenadorPosiciones.SIN_LLEGADA) {
+                continue;
+            }
+            activaciones[i] = !powerUpActivo[i] && aleatorio.siguienteDouble() < Carrera.PROBABILIDAD_POWER_UP;
+            factores[i] = aleatorio.enteroEntre(-30, 30);
+        }
+    }
+
+    /**
+     * Avanza a todos los corredores un turno
+     * @return La mayor distancia despues del turno
+     */
+    private int avanzarTurno() {
+        int maximo = 0;
+
+        for (int i = 0; i < cantidad; i++) {
+            if (turnosLlegada[i] != OrdenadorPosiciones.SIN_LLEGADA) {
+                continue;
+            }
+
+            if (activaciones[i]) {
+                powerUpActivo[i] = true;
+                turnosPowerUp[i] = duraciones[i];
+            }
+
+            int velocidad = velocidades[i] + factores[i];
+            if (powerUpActivo[i]) {
+                velocidad += bonus[i];
+                turnosPowerUp[i]--;
+                powerUpActivo[i] = turnosPowerUp[i] > 0;
+            }
+
+            int avance = Math.max(velocidad, 0);
+            int anterior = posiciones[i];
+            posiciones[i] += avance;
+            maximo = Math.max(maximo, posiciones[i]);
+            if (posiciones[i] >= Carrera.META) {
+                turnosLlegada[i] = turnosJugados;
+                llegadas.registrar(i, turnosJugados, Carrera.META, anterior, avance);
+            }
+        }
+
+        return maximo;
+    }
+
+    /**
+     * Obtiene los indices de los participantes del primero al ultimo lugar
+     * Usa el mismo orden que Carrera: distancia, turno de llegada e id
+     */
+    public int[] obtenerOrden() {
+        if (modoLlegadas) {
+            return Carrera.ordenarConLlegadas(llegadas, posiciones, turnosLlegada, ids);
+        }
+        return OrdenadorPosiciones.ordenar(posiciones, turnosLlegada, ids);
+    }
+
+    /**
+     * Obtiene los indices de los k primeros lugares sin ordenar a todo el grupo
+     * En modo de llegadas, si ya llegaron k corredores se leen directo del registro
+     */
+    public int[] obtenerMejores(int k) {
+        if (modoLlegadas) {
+            if (k <= llegadas.getCantidad()) {
+                int[] mejores = new int[k];
+                for (int lugar = 0; lugar < k; lugar++) {
+                    mejores[lugar] = llegadas.getIndice(lugar);
+                }
+                return mejores;
+            }
+            return Arrays.copyOf(obtenerOrden(), Math.min(k, cantidad));
+        }
+        return OrdenadorPosiciones.mejores(k, posiciones, turnosLlegada, ids);
+    }
+
+    /**
+     * Obtiene el registro de llegadas de la ultima simulacion
+     */
+    public RegistroLlegadas getLlegadas() {
+        return llegadas;
+    }
+
+    /**
+     * Obtiene la distancia actual de cada participante
+     */
+    public int[] getPosiciones() {
+        return posiciones;
+    }
+
+    /**
+     * Obtiene la cantidad de turnos de la ultima simulacion
+     */
+    public int getTurnosJugados() {
+        return turnosJugados;
+    }
+
+    /**
+     * Indica si la ultima simulacion termino por el limite de turnos
+     */
+    public boolean isCortada() {
+        return cortada;
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Clase que ordena a los participantes de una carrera
+ * El orden es estable y determinista: mayor distancia, luego menor turno de
+ * llegada, luego menor id y por ultimo el orden en que se agregaron.
+ * Ordena en O(n log n) o selecciona solo los k primeros en O(n log k).
+ */
+public class OrdenadorPosiciones {
+    /**
+     * Indica que un participante no llego a la meta
+     */
+    public static final int SIN_LLEGADA = Integer.MAX_VALUE;
+
+    /**
+     * Compara dos indices: negativo si a va antes que b
+     */
+    public interface Comparador {
+        int comparar(int a, int b);
+    }
+
+    private OrdenadorPosiciones() {
+    }
+
+    /**
+     * Ordena a todos los participantes
+     * @return Indices de los participantes del primero al ultimo lugar
+     */
+    public static int[] ordenar(int[] distancias, int[] turnosLlegada, int[] ids) {
+        int[] indices = new int[distancias.length];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        ordenarIndices(indices, comparador(distancias, turnosLlegada, ids));
+        return indices;
+    }
+
+    /**
+     * Selecciona solo los k primeros lugares
+     * @return Indices de los k mejores participantes, del primero al k-esimo lugar
+     */
+    public static int[] mejores(int k, int[] distancias, int[] turnosLlegada, int[] ids) {
+        return seleccionarMejores(distancias.length, k, comparador(distancias, turnosLlegada, ids));
+    }
+
+    /**
+     * Crea el comparador de posiciones de carrera
+     */
+    public static Comparador comparador(int[] distancias, int[] turnosLlegada, int[] ids) {
+        return (a, b) -> {
+            if (distancias[a] != distancias[b]) {
+                return Integer.compare(distancias[b], distancias[a]);
+            }
+            if (turnosLlegada[a] != turnosLlegada[b]) {
+                return Integer.compare(turnosLlegada[a], turnosLlegada[b]);
+            }
+            if (ids[a] != ids[b]) {
+                return Integer.compare(ids[a], ids[b]);
+            }
+            return Integer.compare(a, b);
+        };
+    }
+
+    /**
+     * Ordena un arreglo de indices con mergesort (estable, O(n log n))
+     */
+    public static void ordenarIndices(int[] indices, Comparador comparador) {
+        if (indices.length < 2) {
+            return;
+        }
+        int[] auxiliar = new int[indices.length];
+        mergesort(indices, auxiliar, 0, indices.length, comparador);
+    }
+
+    /**
+     * Selecciona los k primeros de los indices 0..n-1 con un monticulo de tamano k
+     * @return Los k primeros indices ya ordenados
+     */
+    public static int[] seleccionarMejores(int n, int k, Comparador comparador) {
+        k = Math.min(k, n);
+        if (k <= 0) {
+            return new int[0];
+        }
+
+        // Monticulo con el peor de los k mejores en la raiz
+        int[] monticulo = new int[k];
+        int tamano = 0;
+        for (int i = 0; i < n; i++) {
+            if (tamano < k) {
+                monticulo[tamano] = i;
+                subir(monticulo, tamano, comparador);
+                tamano++;
+            } else if (comparador.comparar(i, monticulo[0]) < 0) {
+                monticulo[0] = i;
+                bajar(monticulo, tamano, comparador);
+            }
+        }
+
+        ordenarIndices(monticulo, comparador);
+        return monticulo;
+    }
+
+    private static void mergesort(int[] a, int[] aux, int desde, int hasta, Comparador comparador) {
+        if (hasta - desde <= 16) {
+            // Insercion para tramos cortos
+            for (int i = desde + 1; i < hasta; i++) {
+                int valor = a[i];
+                int j = i - 1;
+                while (j >= desde && comparador.comparar(a[j], valor) > 0) {
+                    a[j + 1] = a[j];
+                    j--;
+                }
+                a[j + 1] = valor;
+            }
+            return;
+        }
+
+        int medio = (desde + hasta) >>> 1;
+        mergesort(a, aux, desde, medio, comparador);
+        mergesort(a, aux, medio, hasta, comparador);
+        if (comparador.comparar(a[medio - 1], a[medio]) <= 0) {
+            return;
+        }
+
+        System.arraycopy(a, desde, aux, desde, hasta - desde);
+        int i = desde;
+        int j = medio;
+        for (int k = desde; k < hasta; k++) {
+            if (j >= hasta || (i < medio && comparador.comparar(aux[i], aux[j]) <= 0)) {
+                a[k] = aux[i++];
+            } else {
+                a[k] = aux[j++];
+            }
+        }
+    }
+
+    private static void subir(int[] monticulo, int i, Comparador comparador) {
+        while (i > 0) {
+            int padre = (i - 1) / 2;
+            if (comparador.comparar(monticulo[i], monticulo[padre]) <= 0) {
+                return;
+            }
+            intercambiar(monticulo, i, padre);
+            i = padre;
+        }
+    }
+
+    private static void bajar(int[] monticulo, int tamano, Comparador comparador) {
+        int i = 0;
+        while (true) {
+            int peor = i;
+            int izquierdo = 2 * i + 1;
+            int derecho = izquierdo + 1;
+            if (izquierdo < tamano && comparador.comparar(monticulo[izquierdo], monticulo[peor]) > 0) {
+                peor = izquierdo;
+            }
+            if (derecho < tamano && comparador.comparar(monticulo[derecho], monticulo[peor]) > 0) {
+                peor = derecho;
+            }
+            if (peor == i) {
+                return;
+            }
+            intercambiar(monticulo, i, peor);
+            i = peor;
+        }
+    }
+
+    private static void intercambiar(int[] arreglo, int i, int j) {
+        int temp = arreglo[i];
+        arreglo[i] = arreglo[j];
+        arreglo[j] = temp;
+    }
+}
@@ -0,0 +1,298 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.*;
+
+/**
+ * Clase que organiza y juega torneos simulados con cualquier cantidad de corredores
+ * Soporta liga de N rondas, todos contra todos y eliminacion directa. Las mangas
+ * de una misma ronda son independientes y se simulan en paralelo en un grupo de
+ * hilos; la tabla se actualiza a medida que cada bloque de mangas termina.
+ * Con la misma semilla el torneo se repite exactamente igual.
+ */
+public class PlanificadorTorneo {
+    private static final int MANGAS_POR_TAREA = 256;
+
+    private int corredoresPorManga;
+    private int hilos;
+    private long semilla;
+    private int turnosMaximos; // 0 = sin limite
+
+    /**
+     * Constructor que usa todos los nucleos y una semilla aleatoria
+     */
+    public PlanificadorTorneo(int corredoresPorManga) {
+        this(corredoresPorManga, Runtime.getRuntime().availableProcessors(), new AleatorioDivisible().getSemilla());
+    }
+
+    /**
+     * Constructor con cantidad de hilos y semilla fijas
+     */
+    public PlanificadorTorneo(int corredoresPorManga, int hilos, long semilla) {
+        if (corredoresPorManga < 2) {
+            throw new IllegalArgumentException("Cada manga necesita al menos 2 corredores");
+        }
+        this.corredoresPorManga = corredoresPorManga;
+        this.hilos = Math.max(1, hilos);
+        this.semilla = semilla;
+    }
+
+    /**
+     * Limita los turnos de cada manga (ver Carrera.setTurnosMaximos)
+     */
+    public void setTurnosMaximos(int turnosMaximos) {
+        this.turnosMaximos = turnosMaximos;
+    }
+
+    /**
+     * Juega una liga: en cada ronda todo el roster se reparte al azar en mangas
+     */
+    public TablaTorneo jugarLiga(ArrayList<Corredor> corredores, int rondas) {
+        TablaTorneo tabla = new TablaTorneo(corredores);
+        ArrayList<int[]> mangas = new ArrayList<>();
+
+        // Las rondas de una liga no dependen entre si: se juegan todas juntas
+        for (int ronda = 0; ronda < rondas; ronda++) {
+            int[] orden = mezclar(todos(corredores.size()), ronda);
+            repartirEnMangas(orden, corredoresPorManga, mangas, tabla);
+        }
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try {
+            jugarMangas(ejecutor, corredores, mangas, 0, tabla, null);
+        } finally {
+            ejecutor.shutdown();
+        }
+        return tabla;
+    }
+
+    /**
+     * Juega todos contra todos: cada par de corredores se enfrenta una vez en un duelo
+     * Las rondas se arman con el metodo del circulo (n - 1 rondas de n / 2 duelos)
+     */
+    public TablaTorneo jugarTodosContraTodos(ArrayList<Corredor> corredores) {
+        TablaTorneo tabla = new TablaTorneo(corredores);
+        int cantidad = corredores.size();
+        int conDescanso = cantidad % 2 == 0 ? cantidad : cantidad + 1; // -1 = descansa
+        int[] circulo = new int[conDescanso];
+        for (int i = 0; i < conDescanso; i++) {
+            circulo[i] = i < cantidad ? i : -1;
+        }
+
+        ArrayList<int[]> mangas = new ArrayList<>();
+        for (int ronda = 0; ronda < conDescanso - 1; ronda++) {
+            for (int i = 0; i < conDescanso / 2; i++) {
+                int a = circulo[i];
+                int b = circulo[conDescanso - 1 - i];
+                if (a >= 0 && b >= 0) {
+                    mangas.add(new int[]{a, b});
+                } else if (a >= 0 || b >= 0) {
+                    tabla.registrarDescanso(Math.max(a, b));
+                }
+            }
+
+            // Rotar todos menos el primero
+            int ultimo = circulo[conDescanso - 1];
+            System.arraycopy(circulo, 1, circulo, 2, conDescanso - 2);
+            circulo[1] = ultimo;
+        }
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try {
+            jugarMangas(ejecutor, corredores, mangas, 0, tabla, null);
+        } finally {
+            ejecutor.shutdown();
+        }
+        return tabla;
+    }
+
+    /**
+     * Juega eliminacion directa: de cada manga pasan los primeros lugares
+     * hasta que queda un solo campeon
+     */
+    public TablaTorneo jugarEliminacion(ArrayList<Corredor> corredores, int clasificanPorManga) {
+        if (clasificanPorManga < 1 || clasificanPorManga >= corredoresPorManga) {
+            throw new IllegalArgumentException("Deben clasificar entre 1 y " + (corredoresPorManga - 1) + " por manga");
+        }
+
+        TablaTorneo tabla = new TablaTorneo(corredores);
+        int[] vivos = todos(corredores.size());
+        int ronda = 1;
+        long siguienteManga = 0;
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try {
+            while (vivos.length > 1) {
+                for (int indice : vivos) {
+                    tabla.alcanzarRonda(indice, ronda);
+                }
+
+                // Cuando quedan pocos se juega una final con todos
+                boolean esFinal = vivos.length <= corredoresPorManga;
+                int[] orden = mezclar(vivos, ronda);
+                ArrayList<int[]> mangas = new ArrayList<>();
+                repartirEnMangas(orden, esFinal ? orden.length : corredoresPorManga, mangas, tabla);
+
+                int[][] resultados = new int[mangas.size()][];
+                jugarMangas(ejecutor, corredores, mangas, siguienteManga, tabla, resultados);
+                siguienteManga += mangas.size();
+
+                // Clasificar a los primeros de cada manga; de cada manga queda afuera al menos uno
+                int pasan = esFinal ? 1 : clasificanPorManga;
+                int[] siguientes = new int[vivos.length];
+                int cantidad = 0;
+                for (int[] resultado : resultados) {
+                    for (int lugar = 0; lugar < Math.min(pasan, resultado.length - 1); lugar++) {
+                        siguientes[cantidad++] = resultado[lugar];
+                    }
+                }
+                vivos = Arrays.copyOf(siguientes, cantidad);
+                ronda++;
+            }
+
+            if (vivos.length == 1) {
+                tabla.alcanzarRonda(vivos[0], ronda);
+            }
+        } finally {
+            ejecutor.shutdown();
+        }
+        return tabla;
+    }
+
+    /**
+     * Simula las mangas en paralelo por bloques y las registra en la tabla a medida que terminan
+     * @param primeraManga Numero de la primera manga (define su semilla)
+     * @param resultados Si no es null, guarda el orden de llegada de cada manga
+     */
+    private void jugarMangas(ExecutorService ejecutor, ArrayList<Corredor> corredores, ArrayList<int[]> mangas,
+                             long primeraManga, TablaTorneo tabla, int[][] resultados) {
+        CompletionService<Bloque> completadas = new ExecutorCompletionService<>(ejecutor);
+        int tareas = 0;
+        for (int inicio = 0; inicio < mangas.size(); inicio += MANGAS_POR_TAREA) {
+            int desde = inicio;
+            int hasta = Math.min(mangas.size(), inicio + MANGAS_POR_TAREA);
+            completadas.submit(() -> simularBloque(corredores, mangas, desde, hasta, primeraManga));
+            tareas++;
+        }
+
+        try {
+            for (int t = 0; t < tareas; t++) {
+                Bloque bloque = completadas.take().get();
+                for (int k = 0; k < bloque.ordenes.length; k++) {
+                    tabla.registrarManga(bloque.ordenes[k]);
+                    if (resultados != null) {
+                        resultados[bloque.inicio + k] = bloque.ordenes[k];
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("El torneo fue interrumpido", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error al simular una manga", e.getCause());
+        }
+    }
+
+    /**
+     * Simula un bloque de mangas en el hilo actual
+     */
+    private Bloque simularBloque(ArrayList<Corredor> corredores, ArrayList<int[]> mangas,
+                                 int desde, int hasta, long primeraManga) {
+        AleatorioDivisible aleatorio = new AleatorioDivisible(semilla);
+        int[][] ordenes = new int[hasta - desde][];
+
+        for (int m = desde; m < hasta; m++) {
+            int[] manga = mangas.get(m);
+            aleatorio.reiniciar(AleatorioDivisible.semillaCarrera(semilla, primeraManga + m));
+
+            // Corredores propios de la manga: comparten la definicion, no el estado
+            Corredor[] copias = new Corredor[manga.length];
+            Carrera carrera = new Carrera(EscuchaCarrera.SILENCIOSO, aleatorio);
+            carrera.setTurnosMaximos(turnosMaximos);
+            for (int i = 0; i < manga.length; i++) {
+                copias[i] = corredores.get(manga[i]).copiar();
+                carrera.agregarParticipante(copias[i]);
+            }
+
+            Corredor[] posiciones = carrera.simular();
+            int[] orden = new int[manga.length];
+            for (int lugar = 0; lugar < posiciones.length; lugar++) {
+                for (int i = 0; i < copias.length; i++) {
+                    if (posiciones[lugar] == copias[i]) {
+                        orden[lugar] = manga[i];
+                        break;
+                    }
+                }
+            }
+            ordenes[m - desde] = orden;
+        }
+
+        return new Bloque(desde, ordenes);
+    }
+
+    /**
+     * Reparte los indices en mangas parejas de a lo sumo el tamano indicado
+     * Se usan ceil(n / tamano) mangas cuyos tamanos difieren en uno como maximo, asi
+     * nunca queda una manga sobrante con un solo corredor. Si aun asi alguna quedaria
+     * de uno (n impar con mangas de 2), se usa una manga menos y una queda con uno extra.
+     * Un corredor solo (n = 1) no corre: se registra como descanso.
+     */
+    private static void repartirEnMangas(int[] orden, int tamano, ArrayList<int[]> mangas, TablaTorneo tabla) {
+        int cantidad = orden.length;
+        if (cantidad == 1) {
+            tabla.registrarDescanso(orden[0]);
+            return;
+        }
+        int cantidadMangas = (cantidad + tamano - 1) / tamano;
+        if (cantidadMangas > 1 && cantidad / cantidadMangas < 2) {
+            cantidadMangas--;
+        }
+
+        int inicio = 0;
+        for (int m = 0; m < cantidadMangas; m++) {
+            // Las primeras cantidad % cantidadMangas mangas llevan un corredor mas
+            int largo = cantidad / cantidadMangas + (m < cantidad % cantidadMangas ? 1 : 0);
+            mangas.add(Arrays.copyOfRange(orden, inicio, inicio + largo));
+            inicio += largo;
+        }
+    }
+
+    /**
+     * Devuelve una copia mezclada de los indices (Fisher-Yates con semilla por ronda)
+     */
+    private int[] mezclar(int[] indices, int ronda) {
+        int[] mezclados = Arrays.copyOf(indices, indices.length);
+        AleatorioDivisible aleatorio = new AleatorioDivisible(AleatorioDivisible.semillaCarrera(~semilla, ronda));
+        for (int i = mezclados.length - 1; i > 0; i--) {
+            int j = aleatorio.enteroEntre(0, i);
+            int temp = mezclados[i];
+            mezclados[i] = mezclados[j];
+            mezclados[j] = temp;
+        }
+        return mezclados;
+    }
+
+    private static int[] todos(int cantidad) {
+        int[] indices = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    public long getSemilla() {
+        return semilla;
+    }
+
+    /**
+     * Resultados de un bloque de mangas consecutivas
+     */
+    private static class Bloque {
+        private int inicio;
+        private int[][] ordenes;
+
+        Bloque(int inicio, int[][] ordenes) {
+            this.inicio = inicio;
+            this.ordenes = ordenes;
+        }
+    }
+}
@@ -1,21 +1,37 @@
 /**
  * Clase que representa un power-up en el juego
- * Define cada poder especial
+ * Define cada poder especial. Es inmutable, asi que se comparte entre corredores y carreras.
  */
-public class PowerUp {
-    private String nombre;
-    private int bonus;
-    private int duracion;
+public final class PowerUp {
+    private final int id;
+    private final String nombre;
+    private final int bonus;
+    private final int duracion;
 
     /**
-     * Constructor del power-up
+     * Constructor de un power-up fuera del catalogo
      */
     public PowerUp(String nombre, int bonus, int duracion) {
+        this(-1, nombre, bonus, duracion);
+    }
+
+    /**
+     * Constructor de un power-up del catalogo
+     */
+    PowerUp(int id, String nombre, int bonus, int duracion) {
+        this.id = id;
         this.nombre = nombre;
         this.bonus = bonus;
         this.duracion = duracion;
     }
 
+    /**
+     * Obtiene el id del power-up en el catalogo, -1 si no es del catalogo
+     */
+    public int getId() {
+        return id;
+    }
+
     /**
      * Obtiene el nombre del power-up
      */
@@ -0,0 +1,117 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+
+/**
+ * Clase que mantiene el roster de corredores
+ * Asigna a cada corredor un id consecutivo y permite buscarlo por id o por nombre en O(1).
+ * Las estadisticas de los corredores registrados se acumulan en un almacen compartido
+ * que admite registrar carreras desde varios hilos a la vez.
+ */
+public class RegistroCorredores {
+    private ArrayList<Corredor> porId;
+    private HashMap<String, Corredor> porNombre;
+    private IndiceNombres indiceNombres;  // nombre en UTF-8 -> id
+    private EstadisticasConcurrentes estadisticas;
+    private TablaClasificacion clasificacion;
+    private ArrayList<Corredor> alfabeticos; // null si hay que volver a ordenar
+
+    /**
+     * Constructor del registro vacio
+     */
+    public RegistroCorredores() {
+        this.porId = new ArrayList<>();
+        this.porNombre = new HashMap<>();
+        this.indiceNombres = new IndiceNombres();
+        this.estadisticas = new EstadisticasConcurrentes();
+        this.clasificacion = new TablaClasificacion(estadisticas);
+    }
+
+    /**
+     * Registra un corredor y le asigna el siguiente id
+     * @return El corredor registrado, o null si ya existia uno con el mismo nombre
+     */
+    public Corredor registrar(Corredor corredor) {
+        if (porNombre.containsKey(corredor.getNombre())) {
+            return null;
+        }
+
+        corredor.asignarId(porId.size());
+        porId.add(corredor);
+        porNombre.put(corredor.getNombre(), corredor);
+        indiceNombres.agregar(corredor.getNombre(), corredor.getId());
+        corredor.asignarEstadisticas(estadisticas);
+        clasificacion.agregar(corredor);
+        alfabeticos = null;
+        return corredor;
+    }
+
+    /**
+     * Busca un corredor por nombre
+     * @return El corredor, o null si no existe
+     */
+    public Corredor buscarPorNombre(String nombre) {
+        return porNombre.get(nombre);
+    }
+
+    /**
+     * Busca un corredor por los bytes UTF-8 de su nombre, sin crear un String
+     * @return El id del corredor, o -1 si no existe
+     */
+    public int buscarId(byte[] datos, int desde, int hasta) {
+        return indiceNombres.buscar(datos, desde, hasta);
+    }
+
+    /**
+     * Busca un corredor por id
+     * @return El corredor, o null si el id no existe
+     */
+    public Corredor buscarPorId(int id) {
+        if (id < 0 || id >= porId.size()) {
+            return null;
+        }
+        return porId.get(id);
+    }
+
+    /**
+     * Obtiene la cantidad de corredores registrados
+     */
+    public int tamano() {
+        return porId.size();
+    }
+
+    /**
+     * Obtiene los corredores ordenados alfabeticamente (empates por id)
+     * El orden se calcula una vez y se reutiliza hasta que cambie el roster.
+     * La lista no debe modificarse.
+     */
+    public ArrayList<Corredor> getCorredoresAlfabeticos() {
+        if (alfabeticos == null) {
+            alfabeticos = new ArrayList<>(porId);
+            alfabeticos.sort(Comparator.comparing(Corredor::getNombre).thenComparingInt(Corredor::getId));
+        }
+        return alfabeticos;
+    }
+
+    /**
+     * Obtiene el almacen de estadisticas de los corredores registrados
+     */
+    public EstadisticasConcurrentes getEstadisticas() {
+        return estadisticas;
+    }
+
+    /**
+     * Obtiene la clasificacion de los corredores registrados
+     */
+    public TablaClasificacion getClasificacion() {
+        return clasificacion;
+    }
+
+    /**
+     * Obtiene los corredores ordenados por id
+     * La lista es la del registro y no debe modificarse
+     */
+    public ArrayList<Corredor> getCorredores() {
+        return porId;
+    }
+}
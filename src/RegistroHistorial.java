@@ -0,0 +1,96 @@
+import java.io.*;
+
+/**
+ * Clase que escribe el historial como un registro de solo agregado
+ * Cada carrera se agrega al final del archivo apenas termina, en lotes con buffer
+ */
+public class RegistroHistorial implements Closeable {
+    /**
+     * Cuando se fuerza la escritura del archivo al disco
+     */
+    public enum PoliticaSincronizacion {
+        NUNCA,       // Solo se vacia el buffer, el sistema operativo decide
+        POR_LOTE,    // Se sincroniza al vaciar cada lote
+        POR_CARRERA  // Se vacia y sincroniza despues de cada carrera
+    }
+
+    private FileOutputStream salida;
+    private BufferedWriter escritor;
+    private int tamanoLote;
+    private int pendientes;
+    private PoliticaSincronizacion politica;
+    private long bytesVaciados; // largo del archivo en el ultimo vaciado, para las metricas
+
+    /**
+     * Constructor del registro, abre el archivo para agregar al final
+     */
+    public RegistroHistorial(String archivo, int tamanoLote, PoliticaSincronizacion politica) throws IOException {
+        File f = new File(archivo);
+        boolean faltaSaltoLinea = f.length() > 0 && !terminaEnSaltoLinea(f);
+
+        this.salida = new FileOutputStream(f, true);
+        this.escritor = new BufferedWriter(new OutputStreamWriter(salida));
+        this.tamanoLote = tamanoLote;
+        this.pendientes = 0;
+        this.politica = politica;
+        this.bytesVaciados = f.length();
+
+        // Evitar que la primera carrera quede pegada a la ultima linea existente
+        if (faltaSaltoLinea) {
+            escritor.newLine();
+        }
+    }
+
+    /**
+     * Agrega una carrera al registro
+     */
+    public void registrar(String registro) throws IOException {
+        escritor.write(registro);
+        escritor.newLine();
+        pendientes++;
+
+        if (pendientes >= tamanoLote || politica == PoliticaSincronizacion.POR_CARRERA) {
+            vaciar();
+        }
+    }
+
+    /**
+     * Escribe las carreras pendientes en el archivo
+     */
+    public void vaciar() throws IOException {
+        long inicio = Metricas.reloj();
+        escritor.flush();
+        if (politica != PoliticaSincronizacion.NUNCA) {
+            salida.getFD().sync();
+        }
+        pendientes = 0;
+
+        if (Metricas.ACTIVAS) {
+            long largo = salida.getChannel().position();
+            Metricas.escritura(Metricas.GUARDADO_HISTORIAL, inicio, largo - bytesVaciados);
+            bytesVaciados = largo;
+        }
+    }
+
+    /**
+     * Vacia las carreras pendientes y cierra el archivo
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            vaciar();
+        } finally {
+            escritor.close();
+        }
+    }
+
+    /**
+     * Verifica si el ultimo byte del archivo es un salto de linea
+     */
+    private static boolean terminaEnSaltoLinea(File archivo) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(archivo, "r")) {
+            raf.seek(raf.length() - 1);
+            return raf.read() == '\n';
+        }
+    }
+}
@@ -0,0 +1,97 @@
+import java.util.Arrays;
+
+/**
+ * Clase que registra el orden de llegada a la meta dentro de una carrera
+ * Cada llegada guarda el momento exacto en que se cruzo la meta: el turno mas la
+ * fraccion del avance que hizo falta para llegar. El orden se conoce a medida que
+ * la carrera avanza: al cerrar cada turno, las llegadas de ese turno ya son definitivas.
+ */
+public class RegistroLlegadas {
+    private int[] ids;
+    private double[] tiempos;   // por indice de participante, NaN si no llego
+    private int[] orden;        // indices en orden de llegada
+    private int cantidad;
+    private int inicioTurno;    // primera llegada del turno actual dentro de orden
+
+    /**
+     * Constructor del registro para los participantes con los ids indicados
+     */
+    public RegistroLlegadas(int[] ids) {
+        this.ids = ids;
+        this.tiempos = new double[ids.length];
+        this.orden = new int[ids.length];
+        reiniciar();
+    }
+
+    /**
+     * Borra todas las llegadas
+     */
+    public void reiniciar() {
+        Arrays.fill(tiempos, Double.NaN);
+        cantidad = 0;
+        inicioTurno = 0;
+    }
+
+    /**
+     * Registra que un participante cruzo la meta en este turno
+     * @param posicionAnterior Distancia antes del avance (menor que la meta)
+     * @param avance Distancia avanzada en el turno (llega o pasa la meta)
+     */
+    public void registrar(int indice, int turno, int meta, int posicionAnterior, int avance) {
+        double fraccion = (double) (meta - posicionAnterior) / avance;
+        tiempos[indice] = (turno - 1) + fraccion;
+        orden[cantidad++] = indice;
+    }
+
+    /**
+     * Ordena las llegadas del turno que termino por tiempo, luego id y luego indice
+     * @return La cantidad total de llegadas
+     */
+    public int cerrarTurno() {
+        int nuevas = cantidad - inicioTurno;
+        if (nuevas > 1) {
+            int[] turno = Arrays.copyOfRange(orden, inicioTurno, cantidad);
+            OrdenadorPosiciones.ordenarIndices(turno, (a, b) -> {
+                if (tiempos[a] != tiempos[b]) {
+                    return Double.compare(tiempos[a], tiempos[b]);
+                }
+                if (ids[a] != ids[b]) {
+                    return Integer.compare(ids[a], ids[b]);
+                }
+                return Integer.compare(a, b);
+            });
+            System.arraycopy(turno, 0, orden, inicioTurno, nuevas);
+        }
+        inicioTurno = cantidad;
+        return cantidad;
+    }
+
+    /**
+     * Obtiene la cantidad de participantes que llegaron
+     */
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Obtiene el indice del participante que llego en un lugar (desde 0)
+     */
+    public int getIndice(int lugar) {
+        return orden[lugar];
+    }
+
+    /**
+     * Obtiene el momento de llegada de un participante (turno con fraccion)
+     * @return El momento, o NaN si no llego
+     */
+    public double getTiempo(int indice) {
+        return tiempos[indice];
+    }
+
+    /**
+     * Verifica si un participante ya llego a la meta
+     */
+    public boolean llego(int indice) {
+        return !Double.isNaN(tiempos[indice]);
+    }
+}
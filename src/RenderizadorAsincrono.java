@@ -0,0 +1,328 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clase que muestra carreras por consola desde un hilo propio
+ * La simulacion junta los eventos de cada turno y los publica juntos en una cola
+ * acotada; el hilo renderizador les da formato en un buffer que se reutiliza y los
+ * escribe con una sola escritura por turno. La pausa entre turnos la hace el
+ * renderizador, asi la simulacion no se detiene. Si la cola se llena, la simulacion espera.
+ * Las carreras se publican de a una: no se debe usar en dos carreras simultaneas.
+ */
+public class RenderizadorAsincrono implements EscuchaCarrera {
+    private static final int CAPACIDAD_COLA = 1024; // turnos
+    private static final long ESPERA_COLA = 100;    // Milisegundos entre controles del hilo renderizador
+    private static final int TAMANO_BUFFER = 16 * 1024;
+
+    private static final int INICIO_CARRERA = 0;
+    private static final int INICIO_TURNO = 1;
+    private static final int POWER_UP = 2;
+    private static final int AVANCE = 3;
+    private static final int LLEGADA = 4;
+    private static final int FIN_TURNO = 5;
+    private static final int RESULTADOS = 6;
+    private static final int FIN = 7;
+
+    private final ArrayBlockingQueue<Evento[]> cola;
+    private final OutputStream salida;
+    private final long pausaTurnos;
+    private final Thread hilo;
+    private final AtomicLong publicados;
+    private volatile long mostrados;
+    private final Object aviso;
+
+    // Eventos del turno actual, solo los usa el hilo de la simulacion
+    private Evento[] lote;
+    private int enLote;
+
+    // Solo los usa el hilo renderizador
+    private final StringBuilder texto;
+    private final CharsetEncoder codificador;
+    private final ByteBuffer bytes;
+
+    /**
+     * Constructor del renderizador; el hilo empieza a esperar eventos de inmediato
+     * @param pausaTurnos Milisegundos de pausa despues de mostrar cada turno
+     */
+    public RenderizadorAsincrono(OutputStream salida, long pausaTurnos) {
+        this.cola = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+        this.salida = salida;
+        this.pausaTurnos = pausaTurnos;
+        this.publicados = new AtomicLong();
+        this.aviso = new Object();
+        this.lote = new Evento[16];
+        this.texto = new StringBuilder(TAMANO_BUFFER);
+        this.codificador = Charset.defaultCharset().newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes = ByteBuffer.allocate(TAMANO_BUFFER);
+
+        this.hilo = new Thread(this::renderizar, "renderizador-carreras");
+        this.hilo.setDaemon(true);
+        this.hilo.start();
+    }
+
+    @Override
+    public void inicioCarrera(ArrayList<Corredor> participantes, int meta) {
+        DefinicionCorredor[] definiciones = new DefinicionCorredor[participantes.size()];
+        for (int i = 0; i < definiciones.length; i++) {
+            definiciones[i] = participantes.get(i).getDefinicion();
+        }
+        agregar(new Evento(INICIO_CARRERA, meta, 0, false, 0, definiciones, null));
+    }
+
+    @Override
+    public void inicioTurno(int turno) {
+        agregar(new Evento(INICIO_TURNO, turno, 0, false, 0, null, null));
+    }
+
+    @Override
+    public void powerUpActivado(Corredor corredor) {
+        agregar(new Evento(POWER_UP, 0, 0, false, 0, new DefinicionCorredor[]{corredor.getDefinicion()}, null));
+    }
+
+    @Override
+    public void avance(Corredor corredor, int avance) {
+        // El estado del corredor sigue cambiando: se copian los valores de este momento
+        agregar(new Evento(AVANCE, avance, corredor.getPosicionActual(), corredor.tienePowerUpActivo(), 0,
+                new DefinicionCorredor[]{corredor.getDefinicion()}, null));
+    }
+
+    @Override
+    public void llegada(Corredor corredor, int lugar, double tiempo) {
+        agregar(new Evento(LLEGADA, lugar, 0, false, tiempo,
+                new DefinicionCorredor[]{corredor.getDefinicion()}, null));
+    }
+
+    @Override
+    public void finTurno(int turno) {
+        agregar(new Evento(FIN_TURNO, turno, 0, false, 0, null, null));
+        publicar();
+    }
+
+    @Override
+    public void resultados(Corredor[] posiciones) {
+        DefinicionCorredor[] definiciones = new DefinicionCorredor[posiciones.length];
+        int[] distancias = new int[posiciones.length];
+        for (int i = 0; i < posiciones.length; i++) {
+            definiciones[i] = posiciones[i].getDefinicion();
+            distancias[i] = posiciones[i].getPosicionActual();
+        }
+        agregar(new Evento(RESULTADOS, 0, 0, false, 0, definiciones, distancias));
+        publicar();
+    }
+
+    /**
+     * Espera a que se muestren todos los turnos publicados hasta ahora
+     * Sirve para no mezclar la carrera con lo que se imprima despues
+     */
+    public void esperar() {
+        long objetivo = publicados.get();
+        synchronized (aviso) {
+            while (mostrados < objetivo && hilo.isAlive()) {
+                try {
+                    aviso.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Muestra los eventos pendientes y termina el hilo renderizador
+     */
+    public void cerrar() {
+        agregar(new Evento(FIN, 0, 0, false, 0, null, null));
+        publicar();
+        try {
+            hilo.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void agregar(Evento evento) {
+        if (enLote == lote.length) {
+            lote = Arrays.copyOf(lote, enLote * 2);
+        }
+        lote[enLote++] = evento;
+    }
+
+    /**
+     * Entrega los eventos juntados al renderizador
+     * Si el hilo renderizador ya termino (por ejemplo despues de cerrar), los eventos se
+     * muestran en este hilo en vez de esperar en una cola que nadie vacia.
+     */
+    private void publicar() {
+        Evento[] eventos = Arrays.copyOf(lote, enLote);
+        enLote = 0;
+        publicados.incrementAndGet();
+        try {
+            while (hilo.isAlive()) {
+                if (cola.offer(eventos, ESPERA_COLA, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Se interrumpio la publicacion de la carrera", e);
+        }
+        mostrarSinHilo(eventos);
+    }
+
+    /**
+     * Muestra en el hilo que llama lo que quedo en la cola y los eventos nuevos, sin pausas
+     * Solo se usa cuando el hilo renderizador ya no existe, asi que no comparte los buffers.
+     */
+    private synchronized void mostrarSinHilo(Evento[] eventos) {
+        Evento[] pendientes;
+        while ((pendientes = cola.poll()) != null) {
+            formatearTodos(pendientes);
+        }
+        formatearTodos(eventos);
+        escribir(publicados.get());
+    }
+
+    private void formatearTodos(Evento[] eventos) {
+        for (Evento evento : eventos) {
+            if (evento.tipo != FIN) {
+                formatear(evento);
+            }
+        }
+    }
+
+    /**
+     * Ciclo del hilo renderizador: muestra cada turno con una escritura y hace la pausa
+     */
+    private void renderizar() {
+        long procesados = 0;
+        try {
+            while (true) {
+                Evento[] eventos = cola.take();
+                procesados++;
+                for (Evento evento : eventos) {
+                    if (evento.tipo == FIN) {
+                        escribir(procesados);
+                        return;
+                    }
+                    formatear(evento);
+                }
+                escribir(procesados);
+
+                if (eventos[eventos.length - 1].tipo == FIN_TURNO) {
+                    Thread.sleep(pausaTurnos);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (aviso) {
+                aviso.notifyAll();
+            }
+        }
+    }
+
+    private void formatear(Evento evento) {
+        switch (evento.tipo) {
+            case INICIO_CARRERA:
+                ConsolaCarrera.escribirInicio(texto, Arrays.asList(evento.corredores), evento.entero);
+                break;
+            case INICIO_TURNO:
+                ConsolaCarrera.escribirTurno(texto, evento.entero);
+                break;
+            case POWER_UP:
+                ConsolaCarrera.escribirPowerUp(texto, evento.corredores[0]);
+                break;
+            case AVANCE:
+                ConsolaCarrera.escribirAvance(texto, evento.corredores[0].getNombre(), evento.entero,
+                        evento.total, evento.powerUpActivo);
+                break;
+            case LLEGADA:
+                ConsolaCarrera.escribirLlegada(texto, evento.corredores[0].getNombre(), evento.entero,
+                        evento.tiempo);
+                break;
+            case RESULTADOS:
+                String[] nombres = new String[evento.corredores.length];
+                for (int i = 0; i < nombres.length; i++) {
+                    nombres[i] = evento.corredores[i].getNombre();
+                }
+                ConsolaCarrera.escribirResultados(texto, nombres, evento.distancias);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Codifica el texto acumulado en el buffer de bytes y lo escribe
+     * @param procesados Turnos que quedan mostrados con esta escritura
+     */
+    private void escribir(long procesados) {
+        if (texto.length() > 0) {
+            try {
+                CharBuffer caracteres = CharBuffer.wrap(texto);
+                codificador.reset();
+                CoderResult resultado = codificador.encode(caracteres, bytes, true);
+                while (resultado.isOverflow()) {
+                    volcar();
+                    resultado = codificador.encode(caracteres, bytes, true);
+                }
+                while (codificador.flush(bytes).isOverflow()) {
+                    volcar();
+                }
+                volcar();
+                salida.flush();
+            } catch (IOException e) {
+                System.out.println("Error al mostrar la carrera: " + e.getMessage());
+            }
+            texto.setLength(0);
+        }
+
+        synchronized (aviso) {
+            mostrados = procesados;
+            aviso.notifyAll();
+        }
+    }
+
+    private void volcar() throws IOException {
+        salida.write(bytes.array(), 0, bytes.position());
+        bytes.clear();
+    }
+
+    /**
+     * Copia de un evento de la carrera con los valores del momento en que ocurrio
+     */
+    private static final class Evento {
+        final int tipo;
+        final int entero;           // meta, turno, avance o lugar segun el tipo
+        final int total;
+        final boolean powerUpActivo;
+        final double tiempo;
+        final DefinicionCorredor[] corredores;
+        final int[] distancias;
+
+        Evento(int tipo, int entero, int total, boolean powerUpActivo, double tiempo,
+               DefinicionCorredor[] corredores, int[] distancias) {
+            this.tipo = tipo;
+            this.entero = entero;
+            this.total = total;
+            this.powerUpActivo = powerUpActivo;
+            this.tiempo = tiempo;
+            this.corredores = corredores;
+            this.distancias = distancias;
+        }
+    }
+}
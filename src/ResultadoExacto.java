@@ -0,0 +1,85 @@
+/**
+ * Clase que guarda las probabilidades exactas de una carrera entre varios corredores
+ * Las calcula CalculadoraExacta; se muestra igual que un ResultadoMonteCarlo.
+ */
+public class ResultadoExacto {
+    private String[] nombres;
+    private double[][] probabilidades; // [participante][lugar - 1]
+    private double turnosPromedio;
+    private double sinResolver;
+
+    /**
+     * Constructor del resultado
+     * @param sinResolver Probabilidad de que la carrera siga despues de los turnos calculados
+     */
+    public ResultadoExacto(String[] nombres, double[][] probabilidades, double turnosPromedio, double sinResolver) {
+        this.nombres = nombres;
+        this.probabilidades = probabilidades;
+        this.turnosPromedio = turnosPromedio;
+        this.sinResolver = sinResolver;
+    }
+
+    /**
+     * Obtiene la probabilidad de que un participante termine en un lugar
+     */
+    public double getProbabilidadPosicion(int participante, int lugar) {
+        return probabilidades[participante][lugar - 1];
+    }
+
+    /**
+     * Obtiene la probabilidad de victoria de un participante
+     */
+    public double getProbabilidadVictoria(int participante) {
+        return getProbabilidadPosicion(participante, 1);
+    }
+
+    /**
+     * Obtiene la posicion promedio de un participante
+     */
+    public double getPosicionPromedio(int participante) {
+        double suma = 0;
+        double total = 0;
+        for (int j = 0; j < probabilidades[participante].length; j++) {
+            suma += probabilidades[participante][j] * (j + 1);
+            total += probabilidades[participante][j];
+        }
+        return total == 0 ? 0.0 : suma / total;
+    }
+
+    public String[] getNombres() {
+        return nombres;
+    }
+
+    /**
+     * Obtiene la cantidad esperada de turnos de la carrera
+     */
+    public double getTurnosPromedio() {
+        return turnosPromedio;
+    }
+
+    public double getSinResolver() {
+        return sinResolver;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.join(" vs ", nombres))
+                .append(String.format(" (exacto, %.2f turnos promedio)\n", turnosPromedio));
+        for (int i = 0; i < nombres.length; i++) {
+            sb.append(String.format("  %s: victoria %.2f%%, posicion promedio %.2f, lugares [",
+                    nombres[i], getProbabilidadVictoria(i) * 100, getPosicionPromedio(i)));
+            for (int lugar = 1; lugar <= nombres.length; lugar++) {
+                sb.append(String.format("%.2f%%", getProbabilidadPosicion(i, lugar) * 100));
+                if (lugar < nombres.length) {
+                    sb.append(", ");
+                }
+            }
+            sb.append("]\n");
+        }
+        if (sinResolver > 1e-9) {
+            sb.append(String.format("  Sin resolver: %.6f%% (la carrera puede no terminar)\n", sinResolver * 100));
+        }
+        return sb.toString();
+    }
+}
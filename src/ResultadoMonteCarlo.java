@@ -0,0 +1,115 @@
+/**
+ * Clase que acumula los resultados de muchas carreras entre los mismos corredores
+ * Guarda cuantas veces termino cada participante en cada lugar
+ */
+public class ResultadoMonteCarlo {
+    private String[] nombres;
+    private long[][] conteoPosiciones; // [participante][lugar - 1]
+    private long carreras;
+
+    /**
+     * Constructor del resultado vacio
+     */
+    public ResultadoMonteCarlo(String[] nombres) {
+        this.nombres = nombres;
+        this.conteoPosiciones = new long[nombres.length][nombres.length];
+        this.carreras = 0;
+    }
+
+    /**
+     * Registra una carrera a partir del lugar obtenido por cada participante
+     */
+    public void registrar(int[] lugares) {
+        for (int i = 0; i < lugares.length; i++) {
+            conteoPosiciones[i][lugares[i] - 1]++;
+        }
+        carreras++;
+    }
+
+    /**
+     * Suma los conteos de otro resultado con los mismos participantes
+     */
+    public void combinar(ResultadoMonteCarlo otro) {
+        for (int i = 0; i < conteoPosiciones.length; i++) {
+            for (int j = 0; j < conteoPosiciones[i].length; j++) {
+                conteoPosiciones[i][j] += otro.conteoPosiciones[i][j];
+            }
+        }
+        carreras += otro.carreras;
+    }
+
+    /**
+     * Crea una copia con los participantes en otro orden
+     * @param indices Para cada participante de la copia, su indice en este resultado
+     */
+    public ResultadoMonteCarlo reordenar(int[] indices) {
+        String[] reordenados = new String[indices.length];
+        for (int k = 0; k < indices.length; k++) {
+            reordenados[k] = nombres[indices[k]];
+        }
+
+        ResultadoMonteCarlo copia = new ResultadoMonteCarlo(reordenados);
+        for (int k = 0; k < indices.length; k++) {
+            System.arraycopy(conteoPosiciones[indices[k]], 0, copia.conteoPosiciones[k], 0, indices.length);
+        }
+        copia.carreras = carreras;
+        return copia;
+    }
+
+    /**
+     * Obtiene la probabilidad de que un participante termine en un lugar
+     */
+    public double getProbabilidadPosicion(int participante, int lugar) {
+        if (carreras == 0) {
+            return 0.0;
+        }
+        return (double) conteoPosiciones[participante][lugar - 1] / carreras;
+    }
+
+    /**
+     * Obtiene la probabilidad de victoria de un participante
+     */
+    public double getProbabilidadVictoria(int participante) {
+        return getProbabilidadPosicion(participante, 1);
+    }
+
+    /**
+     * Obtiene la posicion promedio de un participante
+     */
+    public double getPosicionPromedio(int participante) {
+        if (carreras == 0) {
+            return 0.0;
+        }
+        long suma = 0;
+        for (int j = 0; j < conteoPosiciones[participante].length; j++) {
+            suma += conteoPosiciones[participante][j] * (j + 1);
+        }
+        return (double) suma / carreras;
+    }
+
+    public String[] getNombres() {
+        return nombres;
+    }
+
+    public long getCarreras() {
+        return carreras;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.join(" vs ", nombres)).append(" (").append(carreras).append(" carreras)\n");
+        for (int i = 0; i < nombres.length; i++) {
+            sb.append(String.format("  %s: victoria %.2f%%, posicion promedio %.2f, lugares [",
+                    nombres[i], getProbabilidadVictoria(i) * 100, getPosicionPromedio(i)));
+            for (int lugar = 1; lugar <= nombres.length; lugar++) {
+                sb.append(String.format("%.2f%%", getProbabilidadPosicion(i, lugar) * 100));
+                if (lugar < nombres.length) {
+                    sb.append(", ");
+                }
+            }
+            sb.append("]\n");
+        }
+        return sb.toString();
+    }
+}
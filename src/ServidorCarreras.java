@@ -0,0 +1,621 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clase que atiende pedidos de carreras y torneos de otros procesos por un socket local
+ * Un solo hilo atiende todas las conexiones con un Selector (sin bloquearse), y las
+ * carreras se simulan en un grupo fijo de hilos; asi miles de conexiones abiertas no
+ * cuestan un hilo cada una. Los turnos de una carrera se envian a medida que se simulan.
+ *
+ * Protocolo de texto por lineas (UTF-8), con los campos separados por ';':
+ *   CORREDORES                                   -> CORREDOR;nombre;velocidad;power-up ... FIN
+ *   CARRERA;nombre,nombre,...[;semilla=n][;llegadas=n]
+ *                                                -> INICIO;meta;nombres  TURNO;n  POWERUP;nombre;power-up
+ *                                                   AVANCE;nombre;avance;total;0|1  LLEGADA;nombre;lugar;tiempo
+ *                                                   RESULTADO;lugar;nombre;distancia ... FIN;semilla=n;turnos=n[;cortada]
+ *   PROBABILIDADES;nombre,nombre,...[;carreras=n][;exacto=1]
+ *                                                -> PROBABILIDAD;nombre;victoria;posicion promedio ... FIN;carreras=n
+ *                                                   (con exacto=1 se calculan sin simular y termina en FIN;exacto)
+ *   TORNEO;liga|eliminacion|todos[;rondas=n][;clasifican=n][;semilla=n]
+ *                                                -> POSICION;lugar;nombre;puntos;victorias;promedio ... FIN;mangas=n;semilla=n
+ *   METRICAS                                     -> METRICA;nombre;valor ... FIN (ver Metricas)
+ *   SALIR                                        -> cierra la conexion
+ * Un pedido invalido o con valores fuera de rango responde ERROR;motivo. Los pedidos de una
+ * conexion se atienden en orden. Cada carrera del servidor tiene un limite de turnos, asi un
+ * pedido con corredores que no avanzan no ocupa un hilo para siempre (la respuesta lo indica).
+ * Las carreras del servidor usan copias de los corredores y no modifican sus estadisticas.
+ * Las probabilidades se guardan en una cache, asi las consultas repetidas no se vuelven a simular.
+ */
+public class ServidorCarreras {
+    public static final int PUERTO_PREDETERMINADO = 5050;
+
+    private static final int TAMANO_LECTURA = 4096;
+    private static final int LARGO_MAXIMO_LINEA = 8192;
+    private static final long PENDIENTES_MAXIMOS = 1L << 20;   // bytes sin enviar por conexion
+    private static final int CORREDORES_POR_MANGA = 3;
+    private static final int RONDAS_LIGA = 4;
+    private static final long CARRERAS_PROBABILIDAD = 20000;
+    private static final long CARRERAS_MAXIMAS_PROBABILIDAD = 1_000_000;
+    private static final int RONDAS_MAXIMAS_LIGA = 1000;
+    private static final int PARTICIPANTES_MAXIMOS = 32;
+    private static final int TURNOS_MAXIMOS = 1000;
+    private static final int CAPACIDAD_CACHE = 4096;
+    private static final long VIDA_CACHE = 10 * 60 * 1000; // Milisegundos
+
+    private final RegistroCorredores corredores;
+    private final ExecutorService ejecutor;
+    private final CacheEnfrentamientos cache;
+    private final SimuladorMonteCarlo simulador;
+    private final CalculadoraExacta calculadora;
+    private final ConcurrentLinkedQueue<Conexion> conEscrituras;
+    private Selector selector;
+    private ServerSocketChannel canalServidor;
+    private volatile boolean activo;
+
+    /**
+     * Constructor del servidor
+     * @param hilos Cantidad de carreras que se simulan a la vez
+     */
+    public ServidorCarreras(RegistroCorredores corredores, int hilos) {
+        this.corredores = corredores;
+        this.ejecutor = Executors.newFixedThreadPool(Math.max(1, hilos));
+        this.conEscrituras = new ConcurrentLinkedQueue<>();
+        this.cache = new CacheEnfrentamientos(CAPACIDAD_CACHE, VIDA_CACHE);
+        this.simulador = new SimuladorMonteCarlo();
+        this.simulador.setCache(cache);
+        this.simulador.setTurnosMaximos(TURNOS_MAXIMOS);
+        this.calculadora = new CalculadoraExacta();
+    }
+
+    /**
+     * Obtiene la cache de probabilidades, para consultar sus metricas
+     */
+    public CacheEnfrentamientos getCache() {
+        return cache;
+    }
+
+    /**
+     * Abre el puerto en la direccion local (solo acepta conexiones de esta maquina)
+     * @param puerto Puerto a usar, 0 para elegir uno libre
+     * @return El puerto abierto
+     */
+    public int iniciar(int puerto) throws IOException {
+        selector = Selector.open();
+        canalServidor = ServerSocketChannel.open();
+        canalServidor.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto));
+        canalServidor.configureBlocking(false);
+        canalServidor.register(selector, SelectionKey.OP_ACCEPT);
+        activo = true;
+        return canalServidor.socket().getLocalPort();
+    }
+
+    /**
+     * Atiende conexiones en el hilo actual hasta que se llame a detener()
+     */
+    public void atender() {
+        try {
+            while (activo) {
+                selector.select();
+                habilitarEscrituras();
+
+                Iterator<SelectionKey> claves = selector.selectedKeys().iterator();
+                while (claves.hasNext()) {
+                    SelectionKey clave = claves.next();
+                    claves.remove();
+                    try {
+                        if (clave.isAcceptable()) {
+                            aceptar();
+                        } else {
+                            Conexion conexion = (Conexion) clave.attachment();
+                            if (clave.isReadable()) {
+                                conexion.leer();
+                            }
+                            if (clave.isValid() && clave.isWritable()) {
+                                conexion.escribir();
+                            }
+                        }
+                    } catch (IOException e) {
+                        if (clave.attachment() != null) {
+                            ((Conexion) clave.attachment()).cerrar();
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error en el servidor de carreras: " + e.getMessage());
+        } finally {
+            cerrarTodo();
+        }
+    }
+
+    /**
+     * Detiene el servidor; se puede llamar desde cualquier hilo
+     */
+    public void detener() {
+        activo = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+
+    private void aceptar() throws IOException {
+        SocketChannel canal = canalServidor.accept();
+        if (canal == null) {
+            return;
+        }
+        canal.configureBlocking(false);
+        // Los turnos se envian apenas se simulan, sin esperar a juntar mas datos
+        canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Conexion conexion = new Conexion(canal);
+        conexion.clave = canal.register(selector, SelectionKey.OP_READ, conexion);
+    }
+
+    /**
+     * Agrega la escritura a las conexiones que recibieron datos desde los hilos de simulacion
+     */
+    private void habilitarEscrituras() {
+        Conexion conexion;
+        while ((conexion = conEscrituras.poll()) != null) {
+            SelectionKey clave = conexion.clave;
+            if (clave.isValid()) {
+                clave.interestOps(clave.interestOps() | SelectionKey.OP_WRITE);
+            }
+        }
+    }
+
+    private void cerrarTodo() {
+        ejecutor.shutdownNow();
+        try {
+            for (SelectionKey clave : selector.keys()) {
+                clave.channel().close();
+            }
+            selector.close();
+        } catch (IOException e) {
+            System.out.println("Error al cerrar el servidor de carreras: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Atiende los pedidos pendientes de una conexion, de a uno y en orden
+     */
+    private void procesar(Conexion conexion) {
+        while (true) {
+            String linea;
+            synchronized (conexion) {
+                linea = conexion.cerrarAlTerminar ? null : conexion.solicitudes.poll();
+                if (linea == null) {
+                    conexion.ocupada = false;
+                    break;
+                }
+            }
+
+            try {
+                atenderPedido(linea, conexion);
+            } catch (IllegalArgumentException e) {
+                conexion.enviar("ERROR;" + e.getMessage() + "\n");
+            } catch (RuntimeException e) {
+                conexion.enviar("ERROR;No se pudo completar el pedido\n");
+            }
+        }
+
+        // Despues de SALIR, la conexion se cierra cuando termine de enviar todo
+        if (conexion.cerrarAlTerminar) {
+            conexion.avisarEscritura();
+        }
+    }
+
+    private void atenderPedido(String linea, Conexion conexion) {
+        String[] campos = linea.split(";");
+        String comando = campos[0].trim().toUpperCase(Locale.ROOT);
+        switch (comando) {
+            case "CORREDORES":
+                enviarCorredores(conexion);
+                break;
+            case "CARRERA":
+                correrCarrera(campos, conexion);
+                break;
+            case "PROBABILIDADES":
+                calcularProbabilidades(campos, conexion);
+                break;
+            case "TORNEO":
+                jugarTorneo(campos, conexion);
+                break;
+            case "METRICAS":
+                enviarMetricas(conexion);
+                break;
+            case "SALIR":
+                conexion.cerrarAlTerminar();
+                break;
+            default:
+                throw new IllegalArgumentException("Comando desconocido: " + comando);
+        }
+    }
+
+    private void enviarMetricas(Conexion conexion) {
+        if (!Metricas.ACTIVAS) {
+            throw new IllegalArgumentException("Las metricas estan desactivadas (-Dcarreras.metricas=true)");
+        }
+        StringBuilder texto = new StringBuilder();
+        for (Map.Entry<String, String> metrica : Metricas.instantanea().entrySet()) {
+            texto.append("METRICA;").append(metrica.getKey()).append(';').append(metrica.getValue()).append('\n');
+        }
+        texto.append("FIN\n");
+        conexion.enviar(texto.toString());
+    }
+
+    private void enviarCorredores(Conexion conexion) {
+        StringBuilder texto = new StringBuilder();
+        for (Corredor corredor : corredores.getCorredores()) {
+            texto.append("CORREDOR;").append(corredor.getNombre()).append(';')
+                    .append(corredor.getVelocidadBase()).append(';')
+                    .append(corredor.getPowerUp().getNombre()).append('\n');
+        }
+        texto.append("FIN\n");
+        conexion.enviar(texto.toString());
+    }
+
+    private void correrCarrera(String[] campos, Conexion conexion) {
+        ArrayList<Corredor> participantes = buscarParticipantes(campos);
+        long semilla = opcion(campos, "semilla", new AleatorioDivisible().getSemilla());
+        int llegadas = (int) opcion(campos, "llegadas", 0, 0, participantes.size());
+
+        Carrera carrera = new Carrera(new EscuchaRed(conexion), new AleatorioDivisible(semilla));
+        carrera.setLlegadasRequeridas(llegadas);
+        carrera.setTurnosMaximos(TURNOS_MAXIMOS);
+        for (Corredor corredor : participantes) {
+            carrera.agregarParticipante(corredor.copiar());
+        }
+
+        carrera.simular();
+        conexion.enviar("FIN;semilla=" + semilla + ";turnos=" + carrera.getTurnosJugados() +
+                (carrera.isCortada() ? ";cortada" : "") + "\n");
+    }
+
+    private void calcularProbabilidades(String[] campos, Conexion conexion) {
+        if (opcion(campos, "exacto", 0, 0, 1) != 0) {
+            calcularProbabilidadesExactas(campos, conexion);
+            return;
+        }
+        long carreras = opcion(campos, "carreras", CARRERAS_PROBABILIDAD, 1, CARRERAS_MAXIMAS_PROBABILIDAD);
+        ArrayList<Corredor> participantes = buscarParticipantes(campos);
+
+        ResultadoMonteCarlo resultado = simulador.simular(participantes, carreras);
+        StringBuilder texto = new StringBuilder();
+        for (int i = 0; i < participantes.size(); i++) {
+            texto.append("PROBABILIDAD;").append(resultado.getNombres()[i]).append(';')
+                    .append(resultado.getProbabilidadVictoria(i)).append(';')
+                    .append(resultado.getPosicionPromedio(i)).append('\n');
+        }
+        texto.append("FIN;carreras=").append(resultado.getCarreras()).append('\n');
+        conexion.enviar(texto.toString());
+    }
+
+    private void calcularProbabilidadesExactas(String[] campos, Conexion conexion) {
+        ResultadoExacto resultado = calculadora.calcular(buscarParticipantes(campos));
+        StringBuilder texto = new StringBuilder();
+        for (int i = 0; i < resultado.getNombres().length; i++) {
+            texto.append("PROBABILIDAD;").append(resultado.getNombres()[i]).append(';')
+                    .append(resultado.getProbabilidadVictoria(i)).append(';')
+                    .append(resultado.getPosicionPromedio(i)).append('\n');
+        }
+        texto.append("FIN;exacto\n");
+        conexion.enviar(texto.toString());
+    }
+
+    /**
+     * Busca los corredores nombrados en el segundo campo del pedido
+     */
+    private ArrayList<Corredor> buscarParticipantes(String[] campos) {
+        if (campos.length < 2 || campos[1].isBlank()) {
+            throw new IllegalArgumentException("Faltan los corredores");
+        }
+        ArrayList<Corredor> participantes = new ArrayList<>();
+        for (String nombre : campos[1].split(",")) {
+            Corredor corredor = corredores.buscarPorNombre(nombre.trim());
+            if (corredor == null) {
+                throw new IllegalArgumentException("Corredor desconocido: " + nombre.trim());
+            }
+            participantes.add(corredor);
+        }
+        if (participantes.size() > PARTICIPANTES_MAXIMOS) {
+            throw new IllegalArgumentException("Demasiados corredores (maximo " + PARTICIPANTES_MAXIMOS + ")");
+        }
+        return participantes;
+    }
+
+    private void jugarTorneo(String[] campos, Conexion conexion) {
+        if (campos.length < 2) {
+            throw new IllegalArgumentException("Falta el formato del torneo");
+        }
+        long semilla = opcion(campos, "semilla", new AleatorioDivisible().getSemilla());
+        PlanificadorTorneo planificador = new PlanificadorTorneo(CORREDORES_POR_MANGA, 1, semilla);
+        planificador.setTurnosMaximos(TURNOS_MAXIMOS);
+
+        TablaTorneo tabla;
+        switch (campos[1].trim().toLowerCase(Locale.ROOT)) {
+            case "liga":
+                tabla = planificador.jugarLiga(corredores.getCorredores(),
+                        (int) opcion(campos, "rondas", RONDAS_LIGA, 1, RONDAS_MAXIMAS_LIGA));
+                break;
+            case "eliminacion":
+                tabla = planificador.jugarEliminacion(corredores.getCorredores(),
+                        (int) opcion(campos, "clasifican", 1, 1, CORREDORES_POR_MANGA - 1));
+                break;
+            case "todos":
+                tabla = planificador.jugarTodosContraTodos(corredores.getCorredores());
+                break;
+            default:
+                throw new IllegalArgumentException("Formato de torneo desconocido: " + campos[1].trim());
+        }
+
+        StringBuilder texto = new StringBuilder();
+        int[] clasificacion = tabla.obtenerClasificacion();
+        for (int lugar = 0; lugar < clasificacion.length; lugar++) {
+            int i = clasificacion[lugar];
+            texto.append("POSICION;").append(lugar + 1).append(';').append(tabla.getCorredor(i).getNombre())
+                    .append(';').append(tabla.getPuntos(i)).append(';').append(tabla.getVictorias(i))
+                    .append(';').append(tabla.getPosicionPromedio(i)).append('\n');
+        }
+        texto.append("FIN;mangas=").append(tabla.getMangasJugadas()).append(";semilla=").append(semilla).append('\n');
+        conexion.enviar(texto.toString());
+    }
+
+    /**
+     * Busca una opcion nombre=valor entre los campos del pedido
+     * @return El valor, o el valor por defecto si la opcion no esta
+     */
+    private static long opcion(String[] campos, String nombre, long porDefecto) {
+        for (int i = 2; i < campos.length; i++) {
+            String campo = campos[i].trim();
+            int igual = campo.indexOf('=');
+            if (igual > 0 && campo.substring(0, igual).trim().equalsIgnoreCase(nombre)) {
+                try {
+                    return Long.parseLong(campo.substring(igual + 1).trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Valor invalido para " + nombre);
+                }
+            }
+        }
+        return porDefecto;
+    }
+
+    /**
+     * Busca una opcion numerica y verifica que este dentro del rango permitido
+     * @throws IllegalArgumentException Si el valor esta fuera de [minimo, maximo]
+     */
+    private static long opcion(String[] campos, String nombre, long porDefecto, long minimo, long maximo) {
+        long valor = opcion(campos, nombre, porDefecto);
+        if (valor < minimo || valor > maximo) {
+            throw new IllegalArgumentException("Valor fuera de rango para " + nombre +
+                    " (entre " + minimo + " y " + maximo + ")");
+        }
+        return valor;
+    }
+
+    /**
+     * Estado de una conexion
+     * Lectura y escritura al socket solo desde el hilo del selector; los hilos de
+     * simulacion solo encolan los bytes a enviar.
+     */
+    private class Conexion {
+        private final SocketChannel canal;
+        private SelectionKey clave;
+        private final ByteBuffer lectura;
+        private byte[] linea;
+        private int largoLinea;
+
+        // Pedidos recibidos que esperan su turno (protegidos por la conexion)
+        private final ArrayDeque<String> solicitudes;
+        private boolean ocupada;
+
+        private final ConcurrentLinkedQueue<ByteBuffer> salida;
+        private final AtomicLong pendientes;
+        private volatile boolean cerrarAlTerminar;
+        private volatile boolean cerrada;
+
+        Conexion(SocketChannel canal) {
+            this.canal = canal;
+            this.lectura = ByteBuffer.allocate(TAMANO_LECTURA);
+            this.linea = new byte[128];
+            this.solicitudes = new ArrayDeque<>();
+            this.salida = new ConcurrentLinkedQueue<>();
+            this.pendientes = new AtomicLong();
+        }
+
+        /**
+         * Lee lo disponible y encola cada linea completa como un pedido
+         */
+        void leer() throws IOException {
+            int leidos = canal.read(lectura);
+            if (leidos < 0) {
+                cerrar();
+                return;
+            }
+
+            lectura.flip();
+            while (lectura.hasRemaining()) {
+                byte b = lectura.get();
+                if (b == '\n') {
+                    int largo = largoLinea > 0 && linea[largoLinea - 1] == '\r' ? largoLinea - 1 : largoLinea;
+                    String pedido = new String(linea, 0, largo, StandardCharsets.UTF_8);
+                    largoLinea = 0;
+                    if (!pedido.isBlank()) {
+                        encolar(pedido);
+                    }
+                } else if (largoLinea == LARGO_MAXIMO_LINEA) {
+                    enviar("ERROR;Linea demasiado larga\n");
+                    cerrarAlTerminar();
+                    lectura.clear();
+                    return;
+                } else {
+                    if (largoLinea == linea.length) {
+                        linea = Arrays.copyOf(linea, linea.length * 2);
+                    }
+                    linea[largoLinea++] = b;
+                }
+            }
+            lectura.clear();
+        }
+
+        private void encolar(String pedido) {
+            synchronized (this) {
+                solicitudes.add(pedido);
+                if (ocupada) {
+                    return;
+                }
+                ocupada = true;
+            }
+            ejecutor.execute(() -> procesar(this));
+        }
+
+        /**
+         * Encola texto para enviar; se puede llamar desde cualquier hilo
+         * Si el cliente no lee y se acumula demasiado, se cierra la conexion
+         */
+        void enviar(String texto) {
+            if (cerrada) {
+                return;
+            }
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            if (pendientes.addAndGet(bytes.length) > PENDIENTES_MAXIMOS) {
+                cerrada = true;
+            } else {
+                salida.add(ByteBuffer.wrap(bytes));
+            }
+            avisarEscritura();
+        }
+
+        void cerrarAlTerminar() {
+            cerrarAlTerminar = true;
+            avisarEscritura();
+        }
+
+        /**
+         * Pide al hilo del selector que escriba en esta conexion
+         */
+        void avisarEscritura() {
+            conEscrituras.add(this);
+            selector.wakeup();
+        }
+
+        /**
+         * Envia lo que el socket acepte sin bloquearse
+         */
+        void escribir() throws IOException {
+            if (cerrada) {
+                cerrar();
+                return;
+            }
+
+            ByteBuffer pendiente;
+            while ((pendiente = salida.peek()) != null) {
+                pendientes.addAndGet(-canal.write(pendiente));
+                if (pendiente.hasRemaining()) {
+                    return; // el socket esta lleno: se sigue cuando vuelva a aceptar datos
+                }
+                salida.poll();
+            }
+
+            clave.interestOps(clave.interestOps() & ~SelectionKey.OP_WRITE);
+            if (cerrarAlTerminar) {
+                synchronized (this) {
+                    if (!ocupada) {
+                        cerrar();
+                    }
+                }
+            }
+        }
+
+        void cerrar() {
+            cerrada = true;
+            clave.cancel();
+            try {
+                canal.close();
+            } catch (IOException e) {
+                // La conexion ya no se usa
+            }
+        }
+    }
+
+    /**
+     * Escucha que envia cada turno de la carrera al cliente apenas termina
+     */
+    private static class EscuchaRed implements EscuchaCarrera {
+        private final Conexion conexion;
+        private final StringBuilder texto = new StringBuilder();
+
+        EscuchaRed(Conexion conexion) {
+            this.conexion = conexion;
+        }
+
+        @Override
+        public void inicioCarrera(ArrayList<Corredor> participantes, int meta) {
+            texto.append("INICIO;").append(meta).append(';');
+            for (int i = 0; i < participantes.size(); i++) {
+                if (i > 0) {
+                    texto.append(',');
+                }
+                texto.append(participantes.get(i).getNombre());
+            }
+            texto.append('\n');
+        }
+
+        @Override
+        public void inicioTurno(int turno) {
+            texto.append("TURNO;").append(turno).append('\n');
+        }
+
+        @Override
+        public void powerUpActivado(Corredor corredor) {
+            texto.append("POWERUP;").append(corredor.getNombre()).append(';')
+                    .append(corredor.getPowerUp().getNombre()).append('\n');
+        }
+
+        @Override
+        public void avance(Corredor corredor, int avance) {
+            texto.append("AVANCE;").append(corredor.getNombre()).append(';').append(avance).append(';')
+                    .append(corredor.getPosicionActual()).append(';')
+                    .append(corredor.tienePowerUpActivo() ? 1 : 0).append('\n');
+        }
+
+        @Override
+        public void llegada(Corredor corredor, int lugar, double tiempo) {
+            texto.append("LLEGADA;").append(corredor.getNombre()).append(';').append(lugar).append(';')
+                    .append(tiempo).append('\n');
+        }
+
+        @Override
+        public void finTurno(int turno) {
+            conexion.enviar(texto.toString());
+            texto.setLength(0);
+        }
+
+        @Override
+        public void resultados(Corredor[] posiciones) {
+            for (int i = 0; i < posiciones.length; i++) {
+                texto.append("RESULTADO;").append(i + 1).append(';').append(posiciones[i].getNombre())
+                        .append(';').append(posiciones[i].getPosicionActual()).append('\n');
+            }
+            conexion.enviar(texto.toString());
+            texto.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+import java.util.ArrayList;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+/**
+ * Clase que simula muchas carreras independientes en paralelo
+ * Se usa para analizar el balance de los corredores
+ */
+public class SimuladorMonteCarlo {
+    private static final int CORREDORES_POR_CARRERA = 3;
+
+    private long semilla;
+    private CacheEnfrentamientos cache; // null si no se guardan resultados
+    private int turnosMaximos;          // 0 = sin limite
+
+    /**
+     * Constructor con una semilla aleatoria
+     */
+    public SimuladorMonteCarlo() {
+        this(new AleatorioDivisible().getSemilla());
+    }
+
+    /**
+     * Constructor con semilla fija, para repetir exactamente un analisis
+     */
+    public SimuladorMonteCarlo(long semilla) {
+        this.semilla = semilla;
+    }
+
+    /**
+     * Usa una cache para no volver a simular enfrentamientos ya consultados
+     * Un resultado guardado puede venir de una simulacion con otra semilla.
+     */
+    public void setCache(CacheEnfrentamientos cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Limita los turnos de cada carrera simulada (ver Carrera.setTurnosMaximos)
+     */
+    public void setTurnosMaximos(int turnosMaximos) {
+        this.turnosMaximos = turnosMaximos;
+    }
+
+    /**
+     * Simula la cantidad de carreras indicada entre los participantes
+     * Si hay una cache y el enfrentamiento ya se simulo, devuelve el resultado guardado.
+     */
+    public ResultadoMonteCarlo simular(ArrayList<Corredor> participantes, long carreras) {
+        if (cache != null) {
+            return cache.obtener(participantes, carreras, () -> simularSinCache(participantes, carreras));
+        }
+        return simularSinCache(participantes, carreras);
+    }
+
+    /**
+     * Simula las carreras en paralelo
+     * Cada hilo trabaja con sus propias copias y resultados, que se combinan al final.
+     * La carrera numero i usa siempre la misma semilla, sin importar el hilo.
+     */
+    private ResultadoMonteCarlo simularSinCache(ArrayList<Corredor> participantes, long carreras) {
+        String[] nombres = new String[participantes.size()];
+        for (int i = 0; i < nombres.length; i++) {
+            nombres[i] = participantes.get(i).getNombre();
+        }
+
+        return LongStream.range(0, carreras)
+                .parallel()
+                .collect(() -> new Acumulador(participantes, nombres, semilla, turnosMaximos),
+                        Acumulador::simularCarrera,
+                        Acumulador::combinar)
+                .resultado;
+    }
+
+    /**
+     * Simula todos los enfrentamientos posibles de tres corredores del roster
+     */
+    public ArrayList<ResultadoMonteCarlo> simularEnfrentamientos(ArrayList<Corredor> corredores,
+                                                                 long carrerasPorEnfrentamiento) {
+        ArrayList<ResultadoMonteCarlo> resultados = new ArrayList<>();
+        recorrerEnfrentamientos(corredores,
+                enfrentamiento -> resultados.add(simular(enfrentamiento, carrerasPorEnfrentamiento)));
+        return resultados;
+    }
+
+    /**
+     * Recorre todas las combinaciones de tres corredores del roster
+     * Cada combinacion se entrega en una lista nueva.
+     */
+    static void recorrerEnfrentamientos(ArrayList<Corredor> corredores, Consumer<ArrayList<Corredor>> accion) {
+        generarEnfrentamientos(corredores, 0, new ArrayList<>(), accion);
+    }
+
+    /**
+     * Recorre recursivamente las combinaciones de corredores
+     */
+    private static void generarEnfrentamientos(ArrayList<Corredor> corredores, int desde,
+                                               ArrayList<Corredor> enfrentamiento,
+                                               Consumer<ArrayList<Corredor>> accion) {
+        if (enfrentamiento.size() == CORREDORES_POR_CARRERA) {
+            accion.accept(new ArrayList<>(enfrentamiento));
+            return;
+        }
+
+        for (int i = desde; i < corredores.size(); i++) {
+            enfrentamiento.add(corredores.get(i));
+            generarEnfrentamientos(corredores, i + 1, enfrentamiento, accion);
+            enfrentamiento.remove(enfrentamiento.size() - 1);
+        }
+    }
+
+    public long getSemilla() {
+        return semilla;
+    }
+
+    /**
+     * Estado propio de cada hilo: corredores que comparten la definicion, su carrera y sus conteos
+     */
+    private static class Acumulador {
+        private Corredor[] copias;
+        private AleatorioDivisible aleatorio;
+        private long semillaBase;
+        private Carrera carrera;
+        private int[] lugares;
+        private ResultadoMonteCarlo resultado;
+
+        Acumulador(ArrayList<Corredor> participantes, String[] nombres, long semillaBase, int turnosMaximos) {
+            this.copias = new Corredor[participantes.size()];
+            this.aleatorio = new AleatorioDivisible(semillaBase);
+            this.semillaBase = semillaBase;
+            this.carrera = new Carrera(EscuchaCarrera.SILENCIOSO, aleatorio);
+            this.carrera.setTurnosMaximos(turnosMaximos);
+            for (int i = 0; i < copias.length; i++) {
+                copias[i] = participantes.get(i).copiar();
+                carrera.agregarParticipante(copias[i]);
+            }
+            this.lugares = new int[copias.length];
+            this.resultado = new ResultadoMonteCarlo(nombres);
+        }
+
+        void simularCarrera(long indice) {
+            aleatorio.reiniciar(AleatorioDivisible.semillaCarrera(semillaBase, indice));
+            carrera.reiniciar();
+            Corredor[] posiciones = carrera.simular();
+
+            for (int i = 0; i < posiciones.length; i++) {
+                for (int j = 0; j < copias.length; j++) {
+                    if (posiciones[i] == copias[j]) {
+                        lugares[j] = i + 1;
+                        break;
+                    }
+                }
+            }
+
+            resultado.registrar(lugares);
+        }
+
+        void combinar(Acumulador otro) {
+            resultado.combinar(otro.resultado);
+        }
+    }
+}
@@ -1,3 +1,4 @@
+import java.io.IOException;
 
 import java.util.ArrayList;
 import java.util.Scanner;
@@ -6,19 +7,43 @@ import java.util.Scanner;
  * Clase principal del sistema de juego
  */
 public class SistemaJuego {
-    private ArrayList<Corredor> corredores;
-    private ArrayList<String> historial;
+    private static final int CARRERAS_RECIENTES = 10;
+    private static final int RONDAS_TORNEO = 4;
+    private static final int CORREDORES_POR_MANGA = 3;
+    private static final int TAMANO_TABLA_TORNEO = 10;
+    private static final int CARRERAS_POR_INSTANTANEA = 25;
+    private static final int CAPACIDAD_CACHE_ENFRENTAMIENTOS = 1024;
+    private static final long VIDA_CACHE_ENFRENTAMIENTOS = 10 * 60 * 1000; // Milisegundos
+
+    private RegistroCorredores corredores;
     private ManejadorArchivos manejadorArchivos;
     private Scanner scanner;
+    private FuenteAleatoria aleatorio;
+    private int carrerasSinInstantanea;
+    private RenderizadorAsincrono renderizador;
+    private GrabadorRepeticion grabador; // null si no se graban repeticiones
+    private CacheEnfrentamientos cacheEnfrentamientos;
+    private CalculadoraExacta calculadora;
 
     /**
      * Constructor del sistema de juego
      */
     public SistemaJuego() {
-        this.corredores = new ArrayList<>();
-        this.historial = new ArrayList<>();
+        this.corredores = new RegistroCorredores();
         this.manejadorArchivos = new ManejadorArchivos();
         this.scanner = new Scanner(System.in);
+        this.aleatorio = new AleatorioDivisible();
+        this.renderizador = new RenderizadorAsincrono(System.out, ConsolaCarrera.PAUSA_TURNOS);
+        this.cacheEnfrentamientos = new CacheEnfrentamientos(CAPACIDAD_CACHE_ENFRENTAMIENTOS,
+                VIDA_CACHE_ENFRENTAMIENTOS);
+        this.calculadora = new CalculadoraExacta();
+    }
+
+    /**
+     * Graba las carreras jugadas para poder verlas o auditarlas despues
+     */
+    public void activarRepeticiones() {
+        grabador = manejadorArchivos.abrirGrabadorRepeticiones(renderizador);
     }
 
     /**
@@ -55,7 +80,9 @@ public class SistemaJuego {
             System.out.println("1. Nueva Carrera");
             System.out.println("2. Modo Torneo");
             System.out.println("3. Ver Estadisticas");
-            System.out.println("4. Guardar y Salir");
+            System.out.println("4. Analisis de Balance");
+            System.out.println("5. Analisis del Historial");
+            System.out.println("6. Guardar y Salir");
             System.out.println("---------------------------------------------");
             System.out.print("Seleccione una opcion: ");
 
@@ -74,6 +101,12 @@ public class SistemaJuego {
                         verEstadisticas();
                         break;
                     case 4:
+                        analizarBalance();
+                        break;
+                    case 5:
+                        analizarHistorial();
+                        break;
+                    case 6:
                         guardarYSalir();
                         salir = true;
                         break;
@@ -105,7 +138,7 @@ public class SistemaJuego {
         ArrayList<Corredor> oponentes = seleccionarOponentesAleatorios(jugador);
 
         // Crear y ejecutar carrera
-        Carrera carrera = new Carrera();
+        Carrera carrera = crearCarrera();
         carrera.agregarParticipante(jugador);
         for (Corredor oponente : oponentes) {
             carrera.agregarParticipante(oponente);
@@ -116,6 +149,9 @@ public class SistemaJuego {
         // Registrar en historial
         registrarCarreraEnHistorial(resultados);
 
+        // Terminar de mostrar la carrera antes de volver a imprimir
+        renderizador.esperar();
+
         System.out.println("Presiona Enter para seguir...");
         scanner.nextLine();
     }
@@ -127,8 +163,56 @@ public class SistemaJuego {
         System.out.println("---------------------------------------------");
         System.out.println("Modo Torneo");
         System.out.println("---------------------------------------------");
-        System.out.println("Se jugaran 4 rondas");
+        System.out.println("1. Torneo con tu corredor (" + RONDAS_TORNEO + " rondas)");
+        System.out.println("2. Liga simulada de todo el roster");
+        System.out.println("3. Eliminacion directa simulada");
+        System.out.println("4. Todos contra todos simulado");
+        System.out.print("Seleccione un formato: ");
+
+        try {
+            int formato = scanner.nextInt();
+            scanner.nextLine();
+
+            if (formato == 1) {
+                jugarTorneo();
+                return;
+            }
+            if (formato < 2 || formato > 4) {
+                System.out.println("Formato invalido.");
+                return;
+            }
+
+            PlanificadorTorneo planificador = new PlanificadorTorneo(CORREDORES_POR_MANGA);
+            TablaTorneo tabla;
+            if (formato == 2) {
+                System.out.print("Ingrese la cantidad de rondas: ");
+                int rondas = scanner.nextInt();
+                scanner.nextLine();
+                if (rondas <= 0) {
+                    System.out.println("Cantidad invalida.");
+                    return;
+                }
+                tabla = planificador.jugarLiga(corredores.getCorredores(), rondas);
+            } else if (formato == 3) {
+                tabla = planificador.jugarEliminacion(corredores.getCorredores(), 1);
+            } else {
+                tabla = planificador.jugarTodosContraTodos(corredores.getCorredores());
+            }
+            tabla.mostrar(TAMANO_TABLA_TORNEO);
+        } catch (Exception e) {
+            System.out.println("Error: Debe ingresar un numero.");
+            scanner.nextLine();
+            return;
+        }
 
+        System.out.println("Presione Enter para seguir...");
+        scanner.nextLine();
+    }
+
+    /**
+     * Juega el torneo interactivo del jugador contra oponentes fijos
+     */
+    private void jugarTorneo() {
         // Seleccionar corredor del jugador
         Corredor jugador = seleccionarCorredor();
         if (jugador == null) {
@@ -137,19 +221,22 @@ public class SistemaJuego {
 
         // Seleccionar oponentes fijos para el torneo
         ArrayList<Corredor> oponentes = seleccionarOponentesAleatorios(jugador);
+        Corredor[] participantes = new Corredor[oponentes.size() + 1];
+        participantes[0] = jugador;
+        for (int i = 0; i < oponentes.size(); i++) {
+            participantes[i + 1] = oponentes.get(i);
+        }
 
-        // Arrays para almacenar posiciones de todos los participantes
-        int[][] posicionesPorRonda = new int[4][3]; // 4 rondas, 3 corredores
-        Corredor[] participantes = {jugador, oponentes.get(0), oponentes.get(1)};
+        // Posiciones de todos los participantes en cada ronda
+        int[][] posicionesPorRonda = new int[RONDAS_TORNEO][participantes.length];
 
-        // Jugar 4 rondas
-        for (int ronda = 1; ronda <= 4; ronda++) {
+        for (int ronda = 1; ronda <= RONDAS_TORNEO; ronda++) {
             System.out.println("---------------------------------------------");
-            System.out.println("          RONDA " + ronda + " DE 4");
+            System.out.println("          RONDA " + ronda + " DE " + RONDAS_TORNEO);
             System.out.println("---------------------------------------------");
 
             // Crear y ejecutar carrera
-            Carrera carrera = new Carrera();
+            Carrera carrera = crearCarrera();
             for (Corredor participante : participantes) {
                 carrera.agregarParticipante(participante);
             }
@@ -169,7 +256,8 @@ public class SistemaJuego {
                 }
             }
 
-            if (ronda < 4) {
+            renderizador.esperar();
+            if (ronda < RONDAS_TORNEO) {
                 System.out.println("Presiona Enter para pasar a la siguiente ronda...");
                 scanner.nextLine();
             }
@@ -191,35 +279,27 @@ public class SistemaJuego {
         System.out.println("---------------------------------------------");
 
         // Calcular promedios de cada corredor
-        double[] promedios = new double[3];
+        double[] promedios = new double[participantes.length];
 
         for (int i = 0; i < participantes.length; i++) {
             System.out.println("Corredor: " + participantes[i].getNombre());
             System.out.println("Posiciones por ronda:");
 
             int suma = 0;
-            for (int ronda = 0; ronda < 4; ronda++) {
+            for (int ronda = 0; ronda < posicionesPorRonda.length; ronda++) {
                 System.out.println("  Ronda " + (ronda + 1) + ": " + posicionesPorRonda[ronda][i] + "° lugar");
                 suma += posicionesPorRonda[ronda][i];
             }
 
-            promedios[i] = (double) suma / 4;
+            promedios[i] = (double) suma / posicionesPorRonda.length;
             System.out.printf("Promedio de posicion: %.2f\n\n", promedios[i]);
         }
 
-        // Crear indices para ordenar
-        Integer[] indices = {0, 1, 2};
-
-        // Ordenar indices por promedio (menor promedio = mejor)
-        for (int i = 0; i < indices.length - 1; i++) {
-            for (int j = 0; j < indices.length - i - 1; j++) {
-                if (promedios[indices[j]] > promedios[indices[j + 1]]) {
-                    Integer temp = indices[j];
-                    indices[j] = indices[j + 1];
-                    indices[j + 1] = temp;
-                }
-            }
-        }
+        // Ordenar por promedio (menor promedio = mejor), empates por id
+        int[] indices = OrdenadorPosiciones.seleccionarMejores(participantes.length, participantes.length, (a, b) -> {
+            int cmp = Double.compare(promedios[a], promedios[b]);
+            return cmp != 0 ? cmp : Integer.compare(participantes[a].getId(), participantes[b].getId());
+        });
 
         // Mostrar podio final
         System.out.println("---------------------------------------------");
@@ -227,7 +307,7 @@ public class SistemaJuego {
         System.out.println("---------------------------------------------");
 
         String[] medallas = {"ORO", "PLATA", "BRONCE"};
-        for (int i = 0; i < 3; i++) {
+        for (int i = 0; i < Math.min(medallas.length, indices.length); i++) {
             int idx = indices[i];
             System.out.printf("%d° lugar - %s: %s (Promedio: %.2f)\n",
                     (i + 1), medallas[i], participantes[idx].getNombre(), promedios[idx]);
@@ -240,9 +320,8 @@ public class SistemaJuego {
      * Selecciona un corredor de la lista ordenada alfabeticamente
      */
     private Corredor seleccionarCorredor() {
-        // Ordenar corredores alfabeticamente
-        ArrayList<Corredor> corredoresOrdenados = new ArrayList<>(corredores);
-        ordenarCorredoresAlfabeticamente(corredoresOrdenados);
+        // Corredores ordenados alfabeticamente (el registro guarda el orden)
+        ArrayList<Corredor> corredoresOrdenados = corredores.getCorredoresAlfabeticos();
 
         System.out.println("Seleccione su corredor:");
         for (int i = 0; i < corredoresOrdenados.size(); i++) {
@@ -269,44 +348,32 @@ public class SistemaJuego {
         }
     }
 
-    /**
-     * Ordena la lista de corredores alfabeticamente
-     */
-    private void ordenarCorredoresAlfabeticamente(ArrayList<Corredor> lista) {
-        for (int i = 0; i < lista.size() - 1; i++) {
-            for (int j = 0; j < lista.size() - i - 1; j++) {
-                if (lista.get(j).getNombre().compareTo(lista.get(j + 1).getNombre()) > 0) {
-                    Corredor temp = lista.get(j);
-                    lista.set(j, lista.get(j + 1));
-                    lista.set(j + 1, temp);
-                }
-            }
-        }
-    }
-
     /**
      * Selecciona dos oponentes aleatorios diferentes al jugador
+     * Sortea ids del registro, asi no se recorre todo el roster
      */
     private ArrayList<Corredor> seleccionarOponentesAleatorios(Corredor jugador) {
         ArrayList<Corredor> oponentes = new ArrayList<>();
-        ArrayList<Corredor> disponibles = new ArrayList<>();
+        int cantidad = Math.min(2, corredores.tamano() - 1);
 
-        // Crear lista de corredores disponibles (sin el jugador)
-        for (Corredor corredor : corredores) {
-            if (!corredor.equals(jugador)) {
-                disponibles.add(corredor);
+        // Seleccionar oponentes aleatorios sin repetir ni incluir al jugador
+        while (oponentes.size() < cantidad) {
+            Corredor candidato = corredores.buscarPorId(aleatorio.enteroEntre(0, corredores.tamano() - 1));
+            if (candidato.getId() != jugador.getId() && !oponentes.contains(candidato)) {
+                oponentes.add(candidato);
             }
         }
 
-        // Seleccionar dos oponentes aleatorios
-        while (oponentes.size() < 2 && disponibles.size() > 0) {
-            int indice = (int)(Math.random() * disponibles.size());
-            oponentes.add(disponibles.remove(indice));
-        }
-
         return oponentes;
     }
 
+    /**
+     * Crea una carrera mostrada por el renderizador, grabada si las repeticiones estan activas
+     */
+    private Carrera crearCarrera() {
+        return new Carrera(grabador != null ? grabador : renderizador);
+    }
+
     /**
      * Registra una carrera en el historial
      */
@@ -329,7 +396,14 @@ public class SistemaJuego {
             }
         }
 
-        historial.add(registro.toString());
+        manejadorArchivos.registrarEnHistorial(registro.toString());
+
+        // Guardar las estadisticas de vez en cuando para que el proximo inicio sea rapido
+        carrerasSinInstantanea++;
+        if (carrerasSinInstantanea >= CARRERAS_POR_INSTANTANEA) {
+            manejadorArchivos.guardarInstantanea(corredores);
+            carrerasSinInstantanea = 0;
+        }
     }
 
     /**
@@ -343,6 +417,67 @@ public class SistemaJuego {
         scanner.nextLine();
     }
 
+    /**
+     * Simula todos los enfrentamientos del roster para analizar el balance
+     */
+    private void analizarBalance() {
+        System.out.println("---------------------------------------------");
+        System.out.println("Analisis de Balance");
+        System.out.println("---------------------------------------------");
+        System.out.print("Ingrese la cantidad de carreras por enfrentamiento (0 para el calculo exacto): ");
+
+        try {
+            long carreras = scanner.nextLong();
+            scanner.nextLine();
+
+            if (carreras < 0) {
+                System.out.println("Cantidad invalida.");
+                return;
+            }
+
+            if (carreras == 0) {
+                // Probabilidades exactas, sin simular
+                for (ResultadoExacto resultado : calculadora.calcularEnfrentamientos(corredores.getCorredores())) {
+                    System.out.println(resultado);
+                }
+            } else {
+                SimuladorMonteCarlo simulador = new SimuladorMonteCarlo();
+                simulador.setCache(cacheEnfrentamientos);
+                for (ResultadoMonteCarlo resultado : simulador.simularEnfrentamientos(corredores.getCorredores(), carreras)) {
+                    System.out.println(resultado);
+                }
+                System.out.println(cacheEnfrentamientos);
+            }
+        } catch (Exception e) {
+            System.out.println("Error: Debe ingresar un numero.");
+            scanner.nextLine();
+            return;
+        }
+
+        System.out.println("Presione Enter para seguir...");
+        scanner.nextLine();
+    }
+
+    /**
+     * Recorre el historial completo y muestra rachas, lugares y enfrentamientos
+     */
+    private void analizarHistorial() {
+        System.out.println("---------------------------------------------");
+        System.out.println("Analisis del Historial");
+        System.out.println("---------------------------------------------");
+
+        // Incluir las carreras de esta sesion que aun estan en el buffer
+        manejadorArchivos.vaciarHistorial();
+
+        AnalisisHistorial analisis = manejadorArchivos.recorrerHistorialEnParalelo(corredores,
+                AnalisisHistorial.memoriaEstimada(corredores.tamano(), CARRERAS_RECIENTES),
+                () -> new AnalisisHistorial(corredores.tamano(), CARRERAS_RECIENTES), AnalisisHistorial::combinar);
+        analisis.mostrar(corredores);
+
+        System.out.println("Presione Enter para seguir...");
+        scanner.nextLine();
+    }
+
     /**
      * Guarda los datos y sale del programa
      */
@@ -351,7 +486,16 @@ public class SistemaJuego {
         System.out.println("Guardando Datos");
         System.out.println("---------------------------------------------");
 
-        manejadorArchivos.guardarHistorial(historial);
+        manejadorArchivos.guardarHistorial();
+        if (grabador != null) {
+            try {
+                grabador.cerrar();
+            } catch (IOException e) {
+                System.out.println("Error al guardar las repeticiones: " + e.getMessage());
+            }
+        }
+        manejadorArchivos.guardarInstantanea(corredores);
+        renderizador.cerrar();
 
         System.out.println("Gracias por jugar Garfield Kart 2!");
     }
@@ -0,0 +1,172 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Clase que mantiene la clasificacion de los corredores por cada metrica
+ * Reubica solo a los corredores cuyas estadisticas cambiaron, asi las consultas
+ * de top-K y de ranking no recorren todo el roster. Si se conecta a un almacen
+ * concurrente, los cambios se toman del almacen antes de cada consulta.
+ */
+public class TablaClasificacion {
+    private ArrayList<Corredor> corredores;
+    private EstadisticasConcurrentes almacen;
+    private BitSet cambiados;
+
+    // Valores con que cada corredor esta ordenado actualmente en los arboles
+    private long[] victorias;
+    private long[] carreras;
+
+    private ArbolOrdenado[] arboles;
+
+    /**
+     * Constructor de la tabla vacia que se actualiza llamando a actualizar
+     */
+    public TablaClasificacion() {
+        this(null);
+    }
+
+    /**
+     * Constructor de la tabla vacia que se sincroniza con un almacen de estadisticas
+     */
+    public TablaClasificacion(EstadisticasConcurrentes almacen) {
+        this.corredores = new ArrayList<>();
+        this.almacen = almacen;
+        this.cambiados = new BitSet();
+        this.victorias = new long[16];
+        this.carreras = new long[16];
+
+        MetricaClasificacion[] metricas = MetricaClasificacion.values();
+        this.arboles = new ArbolOrdenado[metricas.length];
+        for (MetricaClasificacion metrica : metricas) {
+            arboles[metrica.ordinal()] = new ArbolOrdenado((a, b) -> comparar(metrica, a, b));
+        }
+    }
+
+    /**
+     * Agrega un corredor a la tabla (debe tener su id asignado)
+     */
+    public synchronized void agregar(Corredor corredor) {
+        int id = corredor.getId();
+        if (id >= victorias.length) {
+            int nuevoTamano = Math.max(id + 1, victorias.length * 2);
+            victorias = Arrays.copyOf(victorias, nuevoTamano);
+            carreras = Arrays.copyOf(carreras, nuevoTamano);
+        }
+        while (corredores.size() <= id) {
+            corredores.add(null);
+        }
+
+        corredores.set(id, corredor);
+        EstadisticasCorredor estadisticas = corredor.getEstadisticas();
+        victorias[id] = estadisticas.getVictorias();
+        carreras[id] = estadisticas.getCarrerasJugadas();
+        for (ArbolOrdenado arbol : arboles) {
+            arbol.insertar(id);
+        }
+    }
+
+    /**
+     * Reubica a un corredor despues de que cambiaron sus estadisticas
+     */
+    public synchronized void actualizar(Corredor corredor) {
+        reubicar(corredor.getId(), corredor.getEstadisticas());
+    }
+
+    /**
+     * Toma del almacen los corredores que registraron carreras y los reubica
+     */
+    private void sincronizar() {
+        if (almacen == null || !almacen.tomarCambios(cambiados)) {
+            return;
+        }
+        for (int id = cambiados.nextSetBit(0); id >= 0; id = cambiados.nextSetBit(id + 1)) {
+            if (id < corredores.size() && corredores.get(id) != null) {
+                reubicar(id, almacen.obtener(id));
+            }
+        }
+        cambiados.clear();
+    }
+
+    private void reubicar(int id, EstadisticasCorredor estadisticas) {
+        if (victorias[id] == estadisticas.getVictorias() && carreras[id] == estadisticas.getCarrerasJugadas()) {
+            return;
+        }
+        for (ArbolOrdenado arbol : arboles) {
+            arbol.eliminar(id);
+        }
+
+        victorias[id] = estadisticas.getVictorias();
+        carreras[id] = estadisticas.getCarrerasJugadas();
+        for (ArbolOrdenado arbol : arboles) {
+            arbol.insertar(id);
+        }
+    }
+
+    /**
+     * Obtiene los k mejores corredores segun una metrica
+     */
+    public synchronized ArrayList<Corredor> obtenerTop(MetricaClasificacion metrica, int k) {
+        sincronizar();
+        ArbolOrdenado arbol = arboles[metrica.ordinal()];
+        int cantidad = Math.min(k, arbol.tamano());
+
+        ArrayList<Corredor> top = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            top.add(corredores.get(arbol.kEsimo(i)));
+        }
+        return top;
+    }
+
+    /**
+     * Obtiene el mejor corredor segun una metrica
+     * @return El corredor, o null si nadie tiene un valor mayor que cero
+     */
+    public synchronized Corredor obtenerPrimero(MetricaClasificacion metrica) {
+        sincronizar();
+        ArbolOrdenado arbol = arboles[metrica.ordinal()];
+        if (arbol.tamano() == 0) {
+            return null;
+        }
+
+        int id = arbol.kEsimo(0);
+        boolean tieneValor;
+        switch (metrica) {
+            case CARRERAS_JUGADAS:
+                tieneValor = carreras[id] > 0;
+                break;
+            default:
+                tieneValor = victorias[id] > 0;
+        }
+        return tieneValor ? corredores.get(id) : null;
+    }
+
+    /**
+     * Obtiene el lugar de un corredor segun una metrica (1 es el mejor)
+     * @return El lugar, o 0 si el corredor no esta en la tabla
+     */
+    public synchronized int obtenerRanking(Corredor corredor, MetricaClasificacion metrica) {
+        sincronizar();
+        return arboles[metrica.ordinal()].rango(corredor.getId()) + 1;
+    }
+
+    /**
+     * Compara dos corredores: mayor valor primero y, si empatan, menor id primero
+     */
+    private int comparar(MetricaClasificacion metrica, int a, int b) {
+        int cmp;
+        switch (metrica) {
+            case VICTORIAS:
+                cmp = Long.compare(victorias[b], victorias[a]);
+                break;
+            case PORCENTAJE_VICTORIAS:
+                // victorias[b] / carreras[b] contra victorias[a] / carreras[a] sin dividir
+                cmp = Long.compare(victorias[b] * Math.max(carreras[a], 1),
+                        victorias[a] * Math.max(carreras[b], 1));
+                break;
+            default:
+                cmp = Long.compare(carreras[b], carreras[a]);
+        }
+        return cmp != 0 ? cmp : Integer.compare(a, b);
+    }
+}
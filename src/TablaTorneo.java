@@ -0,0 +1,143 @@
+import java.util.ArrayList;
+
+/**
+ * Clase que acumula la tabla de posiciones de un torneo
+ * Se actualiza manga por manga a medida que terminan
+ */
+public class TablaTorneo {
+    private ArrayList<Corredor> corredores;
+    private long[] puntos;
+    private long[] carreras;
+    private long[] victorias;
+    private long[] sumaPosiciones;
+    private long[] descansos;
+    private int[] rondaAlcanzada;
+    private long mangasJugadas;
+
+    /**
+     * Constructor de la tabla vacia para los corredores del torneo
+     */
+    public TablaTorneo(ArrayList<Corredor> corredores) {
+        this.corredores = corredores;
+        int cantidad = corredores.size();
+        this.puntos = new long[cantidad];
+        this.carreras = new long[cantidad];
+        this.victorias = new long[cantidad];
+        this.sumaPosiciones = new long[cantidad];
+        this.descansos = new long[cantidad];
+        this.rondaAlcanzada = new int[cantidad];
+        this.mangasJugadas = 0;
+    }
+
+    /**
+     * Registra el resultado de una manga
+     * Cada corredor suma tantos puntos como rivales termino por delante
+     * Una manga de un solo corredor no es una carrera: cuenta como descanso.
+     * @param orden Indices de los corredores del torneo, del primero al ultimo lugar
+     */
+    public void registrarManga(int[] orden) {
+        if (orden.length < 2) {
+            for (int i : orden) {
+                registrarDescanso(i);
+            }
+            return;
+        }
+        for (int lugar = 0; lugar < orden.length; lugar++) {
+            int i = orden[lugar];
+            puntos[i] += orden.length - 1 - lugar;
+            carreras[i]++;
+            sumaPosiciones[i] += lugar + 1;
+            if (lugar == 0) {
+                victorias[i]++;
+            }
+        }
+        mangasJugadas++;
+    }
+
+    /**
+     * Registra que un corredor no tuvo rival en una ronda
+     * No suma puntos, carreras ni victorias.
+     */
+    public void registrarDescanso(int indice) {
+        descansos[indice]++;
+    }
+
+    /**
+     * Registra que un corredor llego a una ronda (se usa en eliminacion directa)
+     */
+    public void alcanzarRonda(int indice, int ronda) {
+        rondaAlcanzada[indice] = Math.max(rondaAlcanzada[indice], ronda);
+    }
+
+    /**
+     * Obtiene los indices de los corredores del primero al ultimo de la tabla
+     * Ordena por ronda alcanzada, puntos, posicion promedio y por ultimo id
+     */
+    public int[] obtenerClasificacion() {
+        int[] indices = new int[corredores.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        OrdenadorPosiciones.ordenarIndices(indices, (a, b) -> {
+            if (rondaAlcanzada[a] != rondaAlcanzada[b]) {
+                return Integer.compare(rondaAlcanzada[b], rondaAlcanzada[a]);
+            }
+            if (puntos[a] != puntos[b]) {
+                return Long.compare(puntos[b], puntos[a]);
+            }
+            int cmp = Double.compare(getPosicionPromedio(a), getPosicionPromedio(b));
+            if (cmp != 0) {
+                return cmp;
+            }
+            return Integer.compare(corredores.get(a).getId(), corredores.get(b).getId());
+        });
+        return indices;
+    }
+
+    /**
+     * Muestra los primeros lugares de la tabla
+     */
+    public void mostrar(int cantidad) {
+        int[] clasificacion = obtenerClasificacion();
+        System.out.println("---------------------------------------------");
+        System.out.println("Tabla del Torneo (" + mangasJugadas + " mangas)");
+        System.out.println("---------------------------------------------");
+        for (int lugar = 0; lugar < Math.min(cantidad, clasificacion.length); lugar++) {
+            int i = clasificacion[lugar];
+            System.out.printf("%d° %s: %d puntos, %d victorias, promedio %.2f\n", (lugar + 1),
+                    corredores.get(i).getNombre(), puntos[i], victorias[i], getPosicionPromedio(i));
+        }
+        System.out.println("---------------------------------------------");
+    }
+
+    public Corredor getCorredor(int indice) {
+        return corredores.get(indice);
+    }
+
+    public long getPuntos(int indice) {
+        return puntos[indice];
+    }
+
+    public long getVictorias(int indice) {
+        return victorias[indice];
+    }
+
+    public long getDescansos(int indice) {
+        return descansos[indice];
+    }
+
+    public long getCarreras(int indice) {
+        return carreras[indice];
+    }
+
+    public double getPosicionPromedio(int indice) {
+        if (carreras[indice] == 0) {
+            return 0.0;
+        }
+        return (double) sumaPosiciones[indice] / carreras[indice];
+    }
+
+    public long getMangasJugadas() {
+        return mangasJugadas;
+    }
+}
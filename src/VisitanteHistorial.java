@@ -0,0 +1,13 @@
+/**
+ * Interfaz que recibe las carreras del historial una por una
+ * Permite recorrer el historial sin cargarlo completo en memoria
+ */
+public interface VisitanteHistorial {
+    /**
+     * Procesa una carrera del historial
+     * Los arreglos se reutilizan entre carreras y no deben guardarse
+     * @param ids Id de cada corredor en el registro, o -1 si no esta en el roster
+     * @param posiciones Posicion final de cada corredor
+     */
+    void carrera(int[] ids, int[] posiciones);
+}